@@ -0,0 +1,258 @@
+package kr.codingtree.fieldmate.benchmark;
+
+import kr.codingtree.fieldmate.converter.ValueConverter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+/**
+ * Converters for unrelated JDK types, registered to grow the {@link kr.codingtree.fieldmate.ConverterRegistry}
+ * without changing which converters the benchmarked objects use.
+ */
+public final class BenchmarkConverters {
+
+    public static final Class<?>[] CONVERTERS = {
+            LocalDateConverter.class,
+            LocalTimeConverter.class,
+            LocalDateTimeConverter.class,
+            InstantConverter.class,
+            DurationConverter.class,
+            PeriodConverter.class,
+            YearConverter.class,
+            YearMonthConverter.class,
+            MonthDayConverter.class,
+            OffsetDateTimeConverter.class,
+            ZonedDateTimeConverter.class,
+            BigDecimalConverter.class,
+            BigIntegerConverter.class,
+            URIConverter.class,
+            LocaleConverter.class
+    };
+
+    private BenchmarkConverters() {
+    }
+
+    public static class LocalDateConverter extends ValueConverter<LocalDate> {
+
+        @Override
+        public String serialize(LocalDate value) {
+            return value.toString();
+        }
+
+        @Override
+        public LocalDate deserialize(String value) {
+            return LocalDate.parse(value);
+        }
+
+    }
+
+    public static class LocalTimeConverter extends ValueConverter<LocalTime> {
+
+        @Override
+        public String serialize(LocalTime value) {
+            return value.toString();
+        }
+
+        @Override
+        public LocalTime deserialize(String value) {
+            return LocalTime.parse(value);
+        }
+
+    }
+
+    public static class LocalDateTimeConverter extends ValueConverter<LocalDateTime> {
+
+        @Override
+        public String serialize(LocalDateTime value) {
+            return value.toString();
+        }
+
+        @Override
+        public LocalDateTime deserialize(String value) {
+            return LocalDateTime.parse(value);
+        }
+
+    }
+
+    public static class InstantConverter extends ValueConverter<Instant> {
+
+        @Override
+        public String serialize(Instant value) {
+            return value.toString();
+        }
+
+        @Override
+        public Instant deserialize(String value) {
+            return Instant.parse(value);
+        }
+
+    }
+
+    public static class DurationConverter extends ValueConverter<Duration> {
+
+        @Override
+        public String serialize(Duration value) {
+            return value.toString();
+        }
+
+        @Override
+        public Duration deserialize(String value) {
+            return Duration.parse(value);
+        }
+
+    }
+
+    public static class PeriodConverter extends ValueConverter<Period> {
+
+        @Override
+        public String serialize(Period value) {
+            return value.toString();
+        }
+
+        @Override
+        public Period deserialize(String value) {
+            return Period.parse(value);
+        }
+
+    }
+
+    public static class YearConverter extends ValueConverter<Year> {
+
+        @Override
+        public String serialize(Year value) {
+            return value.toString();
+        }
+
+        @Override
+        public Year deserialize(String value) {
+            return Year.parse(value);
+        }
+
+    }
+
+    public static class YearMonthConverter extends ValueConverter<YearMonth> {
+
+        @Override
+        public String serialize(YearMonth value) {
+            return value.toString();
+        }
+
+        @Override
+        public YearMonth deserialize(String value) {
+            return YearMonth.parse(value);
+        }
+
+    }
+
+    public static class MonthDayConverter extends ValueConverter<MonthDay> {
+
+        @Override
+        public String serialize(MonthDay value) {
+            return value.toString();
+        }
+
+        @Override
+        public MonthDay deserialize(String value) {
+            return MonthDay.parse(value);
+        }
+
+    }
+
+    public static class OffsetDateTimeConverter extends ValueConverter<OffsetDateTime> {
+
+        @Override
+        public String serialize(OffsetDateTime value) {
+            return value.toString();
+        }
+
+        @Override
+        public OffsetDateTime deserialize(String value) {
+            return OffsetDateTime.parse(value);
+        }
+
+    }
+
+    public static class ZonedDateTimeConverter extends ValueConverter<ZonedDateTime> {
+
+        @Override
+        public String serialize(ZonedDateTime value) {
+            return value.toString();
+        }
+
+        @Override
+        public ZonedDateTime deserialize(String value) {
+            return ZonedDateTime.parse(value);
+        }
+
+    }
+
+    public static class BigDecimalConverter extends ValueConverter<BigDecimal> {
+
+        @Override
+        public String serialize(BigDecimal value) {
+            return value.toString();
+        }
+
+        @Override
+        public BigDecimal deserialize(String value) {
+            return new BigDecimal(value);
+        }
+
+    }
+
+    public static class BigIntegerConverter extends ValueConverter<BigInteger> {
+
+        @Override
+        public String serialize(BigInteger value) {
+            return value.toString();
+        }
+
+        @Override
+        public BigInteger deserialize(String value) {
+            return new BigInteger(value);
+        }
+
+    }
+
+    public static class URIConverter extends ValueConverter<URI> {
+
+        @Override
+        public String serialize(URI value) {
+            return value.toString();
+        }
+
+        @Override
+        public URI deserialize(String value) {
+            return URI.create(value);
+        }
+
+    }
+
+    public static class LocaleConverter extends ValueConverter<Locale> {
+
+        @Override
+        public String serialize(Locale value) {
+            return value.toLanguageTag();
+        }
+
+        @Override
+        public Locale deserialize(String value) {
+            return Locale.forLanguageTag(value);
+        }
+
+    }
+
+}
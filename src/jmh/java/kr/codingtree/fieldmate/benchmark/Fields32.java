@@ -0,0 +1,66 @@
+package kr.codingtree.fieldmate.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class Fields32 {
+
+    long revision = 0;
+
+    private int field0 = 0;
+    private long field1 = 1000003L;
+    private double field2 = 0.5;
+    private String field3 = "value-3";
+    private boolean field4 = true;
+    private int field5 = 5;
+    private long field6 = 6000018L;
+    private double field7 = 1.75;
+    private String field8 = "value-8";
+    private boolean field9 = false;
+    private int field10 = 10;
+    private long field11 = 11000033L;
+    private double field12 = 3.0;
+    private String field13 = "value-13";
+    private boolean field14 = true;
+    private int field15 = 15;
+    private long field16 = 16000048L;
+    private double field17 = 4.25;
+    private String field18 = "value-18";
+    private boolean field19 = false;
+    private int field20 = 20;
+    private long field21 = 21000063L;
+    private double field22 = 5.5;
+    private String field23 = "value-23";
+    private boolean field24 = true;
+    private int field25 = 25;
+    private long field26 = 26000078L;
+    private double field27 = 6.75;
+    private String field28 = "value-28";
+    private boolean field29 = false;
+    private int field30 = 30;
+    private long field31 = 31000093L;
+
+    private List<String> names = new ArrayList<>();
+    private Map<String, Integer> scores = new LinkedHashMap<>();
+    private Map<UUID, UUID> links = new LinkedHashMap<>();
+    private int[] series;
+
+    public Fields32() {
+        this(0);
+    }
+
+    public Fields32(int collectionSize) {
+        series = new int[collectionSize];
+
+        for (int i = 0; i < collectionSize; i++) {
+            names.add("name-" + i);
+            scores.put("score-" + i, i);
+            links.put(new UUID(i, 1), new UUID(i, 2));
+            series[i] = i * 31;
+        }
+    }
+
+}
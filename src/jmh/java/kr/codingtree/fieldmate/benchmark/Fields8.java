@@ -0,0 +1,42 @@
+package kr.codingtree.fieldmate.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class Fields8 {
+
+    long revision = 0;
+
+    private int field0 = 0;
+    private long field1 = 1000003L;
+    private double field2 = 0.5;
+    private String field3 = "value-3";
+    private boolean field4 = true;
+    private int field5 = 5;
+    private long field6 = 6000018L;
+    private double field7 = 1.75;
+
+    private List<String> names = new ArrayList<>();
+    private Map<String, Integer> scores = new LinkedHashMap<>();
+    private Map<UUID, UUID> links = new LinkedHashMap<>();
+    private int[] series;
+
+    public Fields8() {
+        this(0);
+    }
+
+    public Fields8(int collectionSize) {
+        series = new int[collectionSize];
+
+        for (int i = 0; i < collectionSize; i++) {
+            names.add("name-" + i);
+            scores.put("score-" + i, i);
+            links.put(new UUID(i, 1), new UUID(i, 2));
+            series[i] = i * 31;
+        }
+    }
+
+}
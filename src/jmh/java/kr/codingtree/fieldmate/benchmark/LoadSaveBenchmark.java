@@ -0,0 +1,110 @@
+package kr.codingtree.fieldmate.benchmark;
+
+import kr.codingtree.fieldmate.FieldMate;
+import kr.codingtree.fieldmate.converter.defaults.UUIDConverter;
+import kr.codingtree.fieldmate.file.BinaryStorage;
+import kr.codingtree.fieldmate.file.FileStorage;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import kr.codingtree.fieldmate.file.YamlStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Throughput of {@link FieldMate#load(File, FileStorage, Object)} and {@link FieldMate#save(File, FileStorage, Object)}
+ * across storage formats, object sizes and registry sizes.
+ * Run with {@code gradle jmh}; allocation per operation is reported by the GC profiler as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadSaveBenchmark {
+
+    @Param({"json", "yaml", "binary"})
+    public String storage;
+
+    @Param({"8", "32"})
+    public int fieldCount;
+
+    @Param({"10", "1000"})
+    public int collectionSize;
+
+    @Param({"1", "16"})
+    public int converterCount;
+
+    private FileStorage fileStorage;
+    private File directory;
+    private File loadFile;
+    private File saveFile;
+    private IntFunction<Object> factory;
+    private Object loadTarget;
+    private Object saveSource;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        switch (storage) {
+            case "json":
+                fileStorage = new JsonStorage();
+                break;
+            case "yaml":
+                fileStorage = new YamlStorage();
+                break;
+            default:
+                fileStorage = new BinaryStorage();
+        }
+
+        factory = fieldCount == 8 ? Fields8::new : Fields32::new;
+
+        FieldMate.clearConverters();
+        FieldMate.registerConverter(UUIDConverter.class);
+
+        for (int i = 0; i < converterCount - 1; i++) {
+            FieldMate.registerConverter(BenchmarkConverters.CONVERTERS[i]);
+        }
+
+        directory = Files.createTempDirectory("fieldmate-jmh").toFile();
+        loadFile = new File(directory, "load." + storage);
+        saveFile = new File(directory, "save." + storage);
+
+        FieldMate.save(loadFile, fileStorage, factory.apply(collectionSize));
+
+        loadTarget = factory.apply(0);
+        saveSource = factory.apply(collectionSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FieldMate.clearConverters();
+        FieldMate.registerConverter(UUIDConverter.class);
+
+        loadFile.delete();
+        saveFile.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public Object load() {
+        FieldMate.load(loadFile, fileStorage, loadTarget);
+        return loadTarget;
+    }
+
+    @Benchmark
+    public boolean save() {
+        // a changed field keeps the save from being skipped as unchanged
+        if (saveSource instanceof Fields8) {
+            ((Fields8) saveSource).revision++;
+        } else {
+            ((Fields32) saveSource).revision++;
+        }
+
+        return FieldMate.save(saveFile, fileStorage, saveSource);
+    }
+
+}
@@ -5,8 +5,11 @@ import kr.codingtree.fieldmate.converter.defaults.UUIDConverter;
 import lombok.Getter;
 import lombok.SneakyThrows;
 
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ConverterRegistry {
 
@@ -15,7 +18,13 @@ public class ConverterRegistry {
     }
 
     @Getter
-    private final ArrayList<ValueConverter> valueConverters = new ArrayList<>();
+    private final CopyOnWriteArrayList<ValueConverter> valueConverters = new CopyOnWriteArrayList<>();
+
+    @Getter
+    private volatile int version = 0;
+
+    // replaced as a whole on every modification, so lookups racing a registration can only pollute the discarded map
+    private volatile ConcurrentHashMap<Class<?>, Optional<ValueConverter>> lookupCache = new ConcurrentHashMap<>();
 
     @SneakyThrows
     public boolean registerConverter(Object object) {
@@ -23,48 +32,136 @@ public class ConverterRegistry {
             object = ((Class) object).newInstance();
         }
 
-        if (object instanceof ValueConverter && !hasConverter(object)) {
-            valueConverters.add((ValueConverter) object);
-            return true;
+        if (object instanceof ValueConverter) {
+            synchronized (this) {
+                if (!hasConverter(object)) {
+                    valueConverters.add((ValueConverter) object);
+                    modified();
+                    return true;
+                }
+            }
         }
 
         return false;
     }
 
-    public boolean unregisterConverter(Object object) {
-        if (hasConverter(object)) {
-            if (!valueConverters.remove(object)) {
-                Iterator<ValueConverter> iterator = valueConverters.iterator();
-
-                while (iterator.hasNext()) {
-                    ValueConverter serializer = iterator.next();
+    public synchronized boolean unregisterConverter(Object object) {
+        if (valueConverters.remove(object)) {
+            modified();
+            return true;
+        }
 
-                    if (serializer.canSerialize(object)) {
-                        iterator.remove();
-                        return true;
-                    }
-                }
-            } else {
+        for (ValueConverter serializer : valueConverters) {
+            if (serializer.canSerialize(object)) {
+                valueConverters.remove(serializer);
+                modified();
                 return true;
             }
         }
+
         return false;
     }
 
     public ValueConverter getConverter(Object object) {
-        if (object != null) {
-            return valueConverters.stream().filter(serializer -> serializer.canSerialize(object)).findFirst().orElse(null);
+        Class<?> type = getType(object);
+
+        if (type == null) {
+            return null;
         }
 
-        return null;
+        ConcurrentHashMap<Class<?>, Optional<ValueConverter>> cache = lookupCache;
+        Optional<ValueConverter> converter = cache.get(type);
+
+        if (converter == null) {
+            converter = Optional.ofNullable(findConverter(type));
+            cache.putIfAbsent(type, converter);
+        }
+
+        return converter.orElse(null);
+    }
+
+    public ValueConverter[] getConverters(Type[] types) {
+        ValueConverter[] converters = new ValueConverter[types != null ? types.length : 0];
+
+        for (int i = 0; i < converters.length; i++) {
+            converters[i] = getConverter(types[i]);
+        }
+
+        return converters;
     }
 
     public boolean hasConverter(Object object) {
-        return valueConverters.stream().anyMatch(serializer -> serializer.canSerialize(object));
+        return getConverter(object) != null;
     }
 
-    public void clearConverters() {
+    public synchronized void clearConverters() {
         valueConverters.clear();
+        modified();
+    }
+
+    private void modified() {
+        lookupCache = new ConcurrentHashMap<>();
+        version++;
+    }
+
+    private Class<?> getType(Object object) {
+        if (object == null) {
+            return null;
+        } else if (object instanceof Class) {
+            return (Class<?>) object;
+        } else if (object instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) object).getRawType();
+        } else if (object instanceof Type) {
+            return null;
+        }
+
+        return object.getClass();
+    }
+
+    private ValueConverter findConverter(Class<?> type) {
+        for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+            ValueConverter converter = findExactConverter(clazz);
+
+            if (converter != null) {
+                return converter;
+            }
+        }
+
+        for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+            ValueConverter converter = findInterfaceConverter(clazz.getInterfaces());
+
+            if (converter != null) {
+                return converter;
+            }
+        }
+
+        return null;
+    }
+
+    private ValueConverter findInterfaceConverter(Class<?>[] interfaces) {
+        for (Class<?> clazz : interfaces) {
+            ValueConverter converter = findExactConverter(clazz);
+
+            if (converter == null) {
+                converter = findInterfaceConverter(clazz.getInterfaces());
+            }
+
+            if (converter != null) {
+                return converter;
+            }
+        }
+
+        return null;
+    }
+
+    private ValueConverter findExactConverter(Class<?> type) {
+        for (ValueConverter converter : valueConverters) {
+            if (converter.getGenericClass() == type) {
+                return converter;
+            }
+        }
+
+        return null;
     }
 
 }
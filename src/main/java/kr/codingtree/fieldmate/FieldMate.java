@@ -1,13 +1,30 @@
 package kr.codingtree.fieldmate;
 
+import kr.codingtree.fieldmate.converter.AsyncConverter;
 import kr.codingtree.fieldmate.converter.ClassConverter;
 import kr.codingtree.fieldmate.converter.FieldConverter;
+import kr.codingtree.fieldmate.converter.LoadResult;
+import kr.codingtree.fieldmate.converter.SaveResult;
+import kr.codingtree.fieldmate.converter.StringPool;
 import kr.codingtree.fieldmate.converter.ValueConverter;
 import kr.codingtree.fieldmate.file.FileStorage;
+import kr.codingtree.fieldmate.metrics.MetricsListener;
+import kr.codingtree.fieldmate.reload.ReloadService;
+import kr.codingtree.fieldmate.store.ObjectCache;
+import kr.codingtree.fieldmate.store.SegmentStore;
 import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * FieldMate is a utility class that simplifies serialization/deserialization between objects and files.
@@ -16,6 +33,7 @@ import java.io.File;
  *
  * @see kr.codingtree.fieldmate.annotation.FieldName
  * @see kr.codingtree.fieldmate.annotation.ExcludeField
+ * @see kr.codingtree.fieldmate.annotation.FieldGroup
  * @see kr.codingtree.fieldmate.file.FileStorage
  */
 @UtilityClass
@@ -24,6 +42,11 @@ public class FieldMate {
     private final ConverterRegistry registry = new ConverterRegistry();
     private final FieldConverter fieldConverter = new FieldConverter(registry);
     private final ClassConverter classConverter = new ClassConverter(fieldConverter);
+    private final AsyncConverter asyncConverter = new AsyncConverter(classConverter, Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+        Thread thread = new Thread(runnable, "FieldMate-Async");
+        thread.setDaemon(true);
+        return thread;
+    }), 64);
 
     /**
      * Registers a custom converter.
@@ -48,6 +71,7 @@ public class FieldMate {
 
     /**
      * Returns a converter for the specified object type.
+     * If no converter is registered for the exact type, converters for its superclasses and interfaces are used.
      *
      * @param object The object or class to find a converter for
      * @return The found converter, or null if none exists
@@ -73,9 +97,56 @@ public class FieldMate {
         registry.clearConverters();
     }
 
+    /**
+     * Sets the size from which Map and Collection fields are converted on the common fork-join pool instead of the calling thread.
+     * Iteration order is kept either way. Registered converters must be thread-safe when it applies.
+     *
+     * @param threshold The number of entries or elements from which conversion runs in parallel
+     */
+    public void setParallelThreshold(int threshold) {
+        fieldConverter.setParallelThreshold(threshold);
+    }
+
+    /**
+     * Sets the pool that loaded Map keys, string values and the trees handed to {@link kr.codingtree.fieldmate.converter.TreeConverter}s are deduplicated through.
+     * Useful when many loaded objects stay in memory and repeat the same short strings. Disabled by default.
+     *
+     * @param pool The pool to use, e.g. a new {@link StringPool} whose counters report the memory saved, or null to disable deduplication
+     */
+    public void setStringPool(StringPool pool) {
+        fieldConverter.setStringPool(pool);
+    }
+
+    /**
+     * @return The current string pool, or null if deduplication is disabled
+     */
+    public StringPool getStringPool() {
+        return fieldConverter.getStringPool();
+    }
+
+    /**
+     * Sets the listener that receives timings, sizes and failures of every load and save, and converter misses.
+     * Measuring is skipped entirely while the listener is {@link MetricsListener#NONE}, which is the default.
+     *
+     * @param listener The listener to report to, e.g. a {@link kr.codingtree.fieldmate.metrics.PipelineStats}
+     */
+    public void setMetricsListener(MetricsListener listener) {
+        listener = listener != null ? listener : MetricsListener.NONE;
+
+        fieldConverter.setMetricsListener(listener);
+        classConverter.setMetricsListener(listener);
+    }
+
+    /**
+     * @return The current metrics listener, {@link MetricsListener#NONE} if none is set
+     */
+    public MetricsListener getMetricsListener() {
+        return classConverter.getMetricsListener();
+    }
+
     /**
      * Loads field values into the specified object using a string path and storage class type.
-     * This method automatically creates a new instance of the storage class.
+     * A shared instance of the storage class is created on first use and reused afterwards.
      * Field mapping is based on field names and can be customized using the {@link kr.codingtree.fieldmate.annotation.FieldName} annotation.
      * Fields with the {@link kr.codingtree.fieldmate.annotation.ExcludeField} annotation are ignored.
      *
@@ -90,7 +161,7 @@ public class FieldMate {
 
     /**
      * Loads field values into the specified object using a file path and storage class type.
-     * This method automatically creates a new instance of the storage class.
+     * A shared instance of the storage class is created on first use and reused afterwards.
      * Field mapping is based on field names and can be customized using the {@link kr.codingtree.fieldmate.annotation.FieldName} annotation.
      * Fields with the {@link kr.codingtree.fieldmate.annotation.ExcludeField} annotation are ignored.
      *
@@ -132,34 +203,240 @@ public class FieldMate {
         classConverter.load(file, fileType, loadClass);
     }
 
+    /**
+     * Loads only the named fields into the specified object, leaving every other field untouched.
+     * A shared instance of the storage class is created on first use and reused afterwards.
+     *
+     * @param file       The file to read data from
+     * @param fileType   The class of the file format handler (e.g., JsonStorage.class)
+     * @param loadClass  The target object to load data into
+     * @param fieldNames The Java names or file keys of the fields to load
+     * @throws IllegalArgumentException If a name does not match any field of the object
+     */
+    @SneakyThrows(Exception.class)
+    public void loadFields(File file, Class<? extends FileStorage> fileType, Object loadClass, String... fieldNames) {
+        loadFields(file, classConverter.getStorage(fileType), loadClass, fieldNames);
+    }
+
+    /**
+     * Loads only the named fields into the specified object, leaving every other field untouched.
+     * JSON and binary files skip over the other entries without parsing their values, YAML files do not construct them.
+     *
+     * @param file       The file to read data from
+     * @param fileType   The file format handler
+     * @param loadClass  The target object to load data into
+     * @param fieldNames The Java names or file keys of the fields to load
+     * @throws IllegalArgumentException If a name does not match any field of the object
+     */
+    public void loadFields(File file, FileStorage fileType, Object loadClass, String... fieldNames) {
+        classConverter.loadFields(file, fileType, loadClass, Arrays.asList(fieldNames));
+    }
+
+    /**
+     * Loads only the fields in the given group into the specified object, leaving every other field untouched.
+     * A shared instance of the storage class is created on first use and reused afterwards.
+     *
+     * @param file      The file to read data from
+     * @param fileType  The class of the file format handler (e.g., JsonStorage.class)
+     * @param loadClass The target object to load data into
+     * @param group     The group name given in {@link kr.codingtree.fieldmate.annotation.FieldGroup}
+     */
+    @SneakyThrows(Exception.class)
+    public void loadGroup(File file, Class<? extends FileStorage> fileType, Object loadClass, String group) {
+        loadGroup(file, classConverter.getStorage(fileType), loadClass, group);
+    }
+
+    /**
+     * Loads only the fields in the given group into the specified object, leaving every other field untouched.
+     *
+     * @param file      The file to read data from
+     * @param fileType  The file format handler
+     * @param loadClass The target object to load data into
+     * @param group     The group name given in {@link kr.codingtree.fieldmate.annotation.FieldGroup}
+     */
+    public void loadGroup(File file, FileStorage fileType, Object loadClass, String group) {
+        classConverter.loadGroup(file, fileType, loadClass, group);
+    }
+
+    /**
+     * Creates a cache that keeps up to the given number of loaded objects in memory by key and loads missing ones from their files
+     * on FieldMate's background executor. Objects marked dirty are saved when they are evicted.
+     * A shared instance of the storage class is created on first use and reused afterwards.
+     *
+     * @param fileType                The class of the file format handler (e.g., JsonStorage.class)
+     * @param locator                 Returns the file of a key
+     * @param factory                 Creates the object a key is loaded into
+     * @param maximumSize             The number of objects above which the least recently used ones are evicted
+     * @param expireAfterAccessMillis The time after the last access at which an object is evicted, or 0 to never expire objects
+     * @return The created cache, which should be closed to save its dirty objects
+     * @see ObjectCache#markDirty(Object)
+     */
+    @SneakyThrows(Exception.class)
+    public <K, T> ObjectCache<K, T> createCache(Class<? extends FileStorage> fileType, Function<? super K, File> locator, Function<? super K, ? extends T> factory,
+                                                long maximumSize, long expireAfterAccessMillis) {
+        return createCache(classConverter.getStorage(fileType), locator, factory, maximumSize, expireAfterAccessMillis);
+    }
+
+    /**
+     * Creates a cache that keeps up to the given number of loaded objects in memory by key and loads missing ones from their files
+     * on FieldMate's background executor. Objects marked dirty are saved when they are evicted.
+     *
+     * @param fileType                The file format handler
+     * @param locator                 Returns the file of a key
+     * @param factory                 Creates the object a key is loaded into
+     * @param maximumSize             The number of objects above which the least recently used ones are evicted
+     * @param expireAfterAccessMillis The time after the last access at which an object is evicted, or 0 to never expire objects
+     * @return The created cache, which should be closed to save its dirty objects
+     */
+    public <K, T> ObjectCache<K, T> createCache(FileStorage fileType, Function<? super K, File> locator, Function<? super K, ? extends T> factory,
+                                                long maximumSize, long expireAfterAccessMillis) {
+        return new ObjectCache<>(asyncConverter, fileType, locator, factory, maximumSize, expireAfterAccessMillis);
+    }
+
+    /**
+     * Opens a store that keeps many objects in a few segment files in the given directory, addressed by key instead of by file.
+     * A shared instance of the storage class is created on first use and reused afterwards.
+     *
+     * @param directory The directory holding the segment files, created if missing
+     * @param fileType  The class of the format the entries of each object are encoded with (e.g., BinaryStorage.class)
+     * @return The opened store, which must be closed when no longer needed
+     * @see SegmentStore#save(String, Object)
+     * @see SegmentStore#load(String, Object)
+     */
+    @SneakyThrows(Exception.class)
+    public SegmentStore openStore(File directory, Class<? extends FileStorage> fileType) {
+        return openStore(directory, classConverter.getStorage(fileType));
+    }
+
+    /**
+     * Opens a store that keeps many objects in a few segment files in the given directory, addressed by key instead of by file.
+     *
+     * @param directory The directory holding the segment files, created if missing
+     * @param fileType  The format the entries of each object are encoded with
+     * @return The opened store, which must be closed when no longer needed
+     */
+    @SneakyThrows(IOException.class)
+    public SegmentStore openStore(File directory, FileStorage fileType) {
+        return new SegmentStore(classConverter, directory, fileType);
+    }
+
+    /**
+     * Creates a service that watches registered files and reloads changed entries into their objects.
+     * Writes to a file are reloaded only after no further write has been seen for the debounce interval.
+     *
+     * @param debounceMillis How long a file must stay unmodified before it is reloaded, in milliseconds
+     * @return A started reload service, which must be closed when no longer needed
+     * @see ReloadService#register(File, FileStorage, Object, kr.codingtree.fieldmate.reload.ChangeListener)
+     */
+    @SneakyThrows(IOException.class)
+    public ReloadService createReloadService(long debounceMillis) {
+        return new ReloadService(classConverter, debounceMillis);
+    }
+
+    /**
+     * Creates a service that watches registered files and reloads changed entries into their objects on the given executor,
+     * such as one running tasks on the thread that owns the objects.
+     *
+     * @param debounceMillis How long a file must stay unmodified before it is reloaded, in milliseconds
+     * @param executor       Runs the binding of changed entries and the listener calls, in submission order
+     * @return A started reload service, which must be closed when no longer needed
+     */
+    @SneakyThrows(IOException.class)
+    public ReloadService createReloadService(long debounceMillis, Executor executor) {
+        return new ReloadService(classConverter, debounceMillis, executor);
+    }
+
+    /**
+     * Loads every file in a directory into a new object each, spreading the work over the common fork-join pool.
+     * A shared instance of the storage class is created on first use and reused afterwards.
+     *
+     * @param directory The directory containing one data file per object
+     * @param fileType  The class of the file format handler (e.g., JsonStorage.class)
+     * @param factory   Creates the target object for a file
+     * @return The loaded objects and the failure of every file that could not be loaded
+     */
+    @SneakyThrows(Exception.class)
+    public <T> LoadResult<T> loadAll(File directory, Class<? extends FileStorage> fileType, Function<File, ? extends T> factory) {
+        return loadAll(directory, classConverter.getStorage(fileType), factory);
+    }
+
+    /**
+     * Loads every file in a directory into a new object each, spreading the work over the common fork-join pool.
+     *
+     * @param directory The directory containing one data file per object
+     * @param fileType  The file format handler
+     * @param factory   Creates the target object for a file
+     * @return The loaded objects and the failure of every file that could not be loaded
+     */
+    public <T> LoadResult<T> loadAll(File directory, FileStorage fileType, Function<File, ? extends T> factory) {
+        return loadAll(directory, fileType, factory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads every file in a directory into a new object each, spreading the work over the given executor.
+     * Files are processed in name order, and subdirectories are ignored.
+     *
+     * @param directory The directory containing one data file per object
+     * @param fileType  The file format handler
+     * @param factory   Creates the target object for a file
+     * @param executor  The executor that reads and binds the files
+     * @return The loaded objects and the failure of every file that could not be loaded
+     */
+    public <T> LoadResult<T> loadAll(File directory, FileStorage fileType, Function<File, ? extends T> factory, Executor executor) {
+        File[] files = directory.listFiles(File::isFile);
+
+        if (files == null) {
+            return new LoadResult<>();
+        }
+
+        Arrays.sort(files);
+        return loadAll(Arrays.asList(files), fileType, factory, executor);
+    }
+
+    /**
+     * Loads the given files into a new object each, spreading the work over the given executor.
+     * A file that fails to load is reported in the result instead of aborting the remaining files.
+     *
+     * @param files    The files to load
+     * @param fileType The file format handler
+     * @param factory  Creates the target object for a file
+     * @param executor The executor that reads and binds the files
+     * @return The loaded objects and the failure of every file that could not be loaded
+     */
+    public <T> LoadResult<T> loadAll(Collection<File> files, FileStorage fileType, Function<File, ? extends T> factory, Executor executor) {
+        return classConverter.loadAll(files, fileType, factory, executor);
+    }
+
     /**
      * Saves field values from the specified object to a file at the given string path using the specified storage class type.
-     * This method automatically creates a new instance of the storage class.
+     * A shared instance of the storage class is created on first use and reused afterwards.
      * Field mapping is based on field names and can be customized using the {@link kr.codingtree.fieldmate.annotation.FieldName} annotation.
      * Fields with the {@link kr.codingtree.fieldmate.annotation.ExcludeField} annotation are ignored.
      *
      * @param path      The string path of the file to save data to
      * @param fileType  The class of the file format handler (e.g., JsonStorage.class)
      * @param saveClass The source object to save data from
+     * @return Whether the file was written, false if its content would not have changed since the last save
      * @throws Exception If an error occurs during field access or file writing
      */
-    public void save(String path, Class<? extends FileStorage> fileType, Object saveClass) {
-        save(new File(path), fileType, saveClass);
+    public boolean save(String path, Class<? extends FileStorage> fileType, Object saveClass) {
+        return save(new File(path), fileType, saveClass);
     }
 
     /**
      * Saves field values from the specified object to a file using the specified storage class type.
-     * This method automatically creates a new instance of the storage class.
+     * A shared instance of the storage class is created on first use and reused afterwards.
      * Field mapping is based on field names and can be customized using the {@link kr.codingtree.fieldmate.annotation.FieldName} annotation.
      * Fields with the {@link kr.codingtree.fieldmate.annotation.ExcludeField} annotation are ignored.
      *
      * @param file      The file to save data to
      * @param fileType  The class of the file format handler (e.g., JsonStorage.class)
      * @param saveClass The source object to save data from
+     * @return Whether the file was written, false if its content would not have changed since the last save
      * @throws Exception If an error occurs during field access or file writing
      */
-    public void save(File file, Class<? extends FileStorage> fileType, Object saveClass) {
-        classConverter.save(file, fileType, saveClass);
+    public boolean save(File file, Class<? extends FileStorage> fileType, Object saveClass) {
+        return classConverter.save(file, fileType, saveClass);
     }
 
     /**
@@ -171,25 +448,159 @@ public class FieldMate {
      * @param path      The string path of the file to save data to
      * @param fileType  The file format handler instance
      * @param saveClass The source object to save data from
+     * @return Whether the file was written, false if its content would not have changed since the last save
      * @throws Exception If an error occurs during field access or file writing
      */
-    public void save(String path, FileStorage fileType, Object saveClass) {
-        save(new File(path), fileType, saveClass);
+    public boolean save(String path, FileStorage fileType, Object saveClass) {
+        return save(new File(path), fileType, saveClass);
     }
 
     /**
      * Saves field values from the specified object to a file.
+     * The write is skipped when the serialized fields match what was last saved to the same file and the file has not been modified since.
      * Field mapping is based on field names and can be customized using the {@link kr.codingtree.fieldmate.annotation.FieldName} annotation.
      * Fields with the {@link kr.codingtree.fieldmate.annotation.ExcludeField} annotation are ignored.
      *
      * @param file      The file to save data to
      * @param fileType  The file format handler
      * @param saveClass The source object to save data from
+     * @return Whether the file was written, false if its content would not have changed since the last save
      * @throws Exception If an error occurs during field access or file writing
      */
     @SneakyThrows(Exception.class)
-    public void save(File file, FileStorage fileType, Object saveClass) {
-        classConverter.save(file, fileType, saveClass);
+    public boolean save(File file, FileStorage fileType, Object saveClass) {
+        return classConverter.save(file, fileType, saveClass);
+    }
+
+    /**
+     * Saves an object after only one of its fields changed, serializing just that field.
+     * A shared instance of the storage class is created on first use and reused afterwards.
+     *
+     * @param file      The file to save data to
+     * @param fileType  The class of the file format handler (e.g., JsonStorage.class)
+     * @param saveClass The source object to save data from
+     * @param fieldName The Java name or file key of the changed field
+     * @return Whether the file was written, false if its content would not have changed since the last save
+     */
+    @SneakyThrows(Exception.class)
+    public boolean saveField(File file, Class<? extends FileStorage> fileType, Object saveClass, String fieldName) {
+        return saveField(file, classConverter.getStorage(fileType), saveClass, fieldName);
+    }
+
+    /**
+     * Saves an object after only one of its fields changed, serializing just that field.
+     * The other entries are reused as the previous saveField of the same object to the same file rendered them instead of being read and converted again,
+     * so other fields modified since then are not saved by this call. The whole document is still written.
+     * Every field is rendered on the first call for a file or for another object, and after the file was loaded, saved by other means or modified elsewhere.
+     *
+     * @param file      The file to save data to
+     * @param fileType  The file format handler
+     * @param saveClass The source object to save data from
+     * @param fieldName The Java name or file key of the changed field
+     * @return Whether the file was written, false if its content would not have changed since the last save
+     * @throws IllegalArgumentException If the class has no such field
+     */
+    public boolean saveField(File file, FileStorage fileType, Object saveClass, String fieldName) {
+        return classConverter.saveField(file, fileType, saveClass, fieldName);
+    }
+
+    /**
+     * Saves many objects as one durable batch, spreading the work over the common fork-join pool.
+     * A shared instance of the storage class is created on first use and reused afterwards.
+     *
+     * @param objects  The object to save per file
+     * @param fileType The class of the file format handler (e.g., JsonStorage.class)
+     * @return Whether each file was written or skipped as unchanged, and the failure of every file that could not be saved
+     */
+    @SneakyThrows(Exception.class)
+    public SaveResult saveAll(Map<File, ?> objects, Class<? extends FileStorage> fileType) {
+        return saveAll(objects, classConverter.getStorage(fileType));
+    }
+
+    /**
+     * Saves many objects as one durable batch, spreading the work over the common fork-join pool.
+     *
+     * @param objects  The object to save per file
+     * @param fileType The file format handler
+     * @return Whether each file was written or skipped as unchanged, and the failure of every file that could not be saved
+     */
+    public SaveResult saveAll(Map<File, ?> objects, FileStorage fileType) {
+        return saveAll(objects, fileType, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Saves many objects as one durable batch, for checkpoints and shutdown.
+     * Every file is rendered to a temporary file and forced to disk on the executor, then all of them are renamed into place
+     * and every directory involved is forced once, so a crash never leaves a partially written file.
+     * The objects must not be modified until this returns.
+     *
+     * @param objects  The object to save per file
+     * @param fileType The file format handler
+     * @param executor The executor that renders and writes the files
+     * @return Whether each file was written or skipped as unchanged, and the failure of every file that could not be saved
+     */
+    public SaveResult saveAll(Map<File, ?> objects, FileStorage fileType, Executor executor) {
+        return classConverter.saveAll(objects, fileType, executor);
+    }
+
+    /**
+     * Loads field values into the specified object on FieldMate's background executor.
+     * The object must not be accessed until the returned future completes.
+     * Operations on the same file run one at a time in the order they were requested.
+     * A shared instance of the storage class is created on first use and reused afterwards.
+     *
+     * @param file      The file to read data from
+     * @param fileType  The class of the file format handler (e.g., JsonStorage.class)
+     * @param loadClass The target object to load data into
+     * @return A future completed with the loaded object
+     */
+    @SneakyThrows(Exception.class)
+    public <T> CompletableFuture<T> loadAsync(File file, Class<? extends FileStorage> fileType, T loadClass) {
+        return loadAsync(file, classConverter.getStorage(fileType), loadClass);
+    }
+
+    /**
+     * Loads field values into the specified object on FieldMate's background executor.
+     * The object must not be accessed until the returned future completes.
+     * Operations on the same file run one at a time in the order they were requested.
+     *
+     * @param file      The file to read data from
+     * @param fileType  The file format handler
+     * @param loadClass The target object to load data into
+     * @return A future completed with the loaded object
+     */
+    public <T> CompletableFuture<T> loadAsync(File file, FileStorage fileType, T loadClass) {
+        return asyncConverter.load(file, fileType, loadClass);
+    }
+
+    /**
+     * Captures the field values of the specified object on the calling thread and writes them on FieldMate's background executor.
+     * The object may be modified again as soon as this method returns.
+     * Saves to a file that have not started yet are coalesced, so only the newest snapshot is written.
+     * A shared instance of the storage class is created on first use and reused afterwards.
+     *
+     * @param file      The file to save data to
+     * @param fileType  The class of the file format handler (e.g., JsonStorage.class)
+     * @param saveClass The source object to save data from
+     * @return A future completed with whether the file was written
+     */
+    @SneakyThrows(Exception.class)
+    public CompletableFuture<Boolean> saveAsync(File file, Class<? extends FileStorage> fileType, Object saveClass) {
+        return saveAsync(file, classConverter.getStorage(fileType), saveClass);
+    }
+
+    /**
+     * Captures the field values of the specified object on the calling thread and writes them on FieldMate's background executor.
+     * The object may be modified again as soon as this method returns.
+     * Saves to a file that have not started yet are coalesced, so only the newest snapshot is written.
+     *
+     * @param file      The file to save data to
+     * @param fileType  The file format handler
+     * @param saveClass The source object to save data from
+     * @return A future completed with whether the file was written
+     */
+    public CompletableFuture<Boolean> saveAsync(File file, FileStorage fileType, Object saveClass) {
+        return asyncConverter.save(file, fileType, saveClass);
     }
 
 }
@@ -0,0 +1,134 @@
+package kr.codingtree.fieldmate.converter;
+
+import kr.codingtree.fieldmate.file.FileStorage;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs loads and saves on an executor instead of the caller's thread.
+ * Files are spread over a fixed number of lanes by path, and the operations of a lane run one at a time in submission order,
+ * so two operations on the same file never overlap and always complete in the order they were requested.
+ * Saves to a file that are still waiting in its lane are coalesced so only the newest snapshot is written.
+ * <p>
+ * A load runs entirely on the executor. A save runs {@link ClassConverter#toSnapshot(Object)} on the caller's thread: it reads the fields,
+ * converts them with their registered converters and copies the collections and primitive arrays the entries would share with the fields,
+ * so the object may change as soon as save returns. Rendering, comparing the fingerprint with the last save and writing the file run on the executor.
+ */
+public class AsyncConverter {
+
+    private final ClassConverter classConverter;
+    private final Executor executor;
+    private final Lane[] lanes;
+
+    private final ConcurrentHashMap<File, PendingSave> pendingSaves = new ConcurrentHashMap<>();
+
+    /**
+     * @param lanes The number of lanes, which bounds how many files are processed at the same time
+     */
+    public AsyncConverter(ClassConverter classConverter, Executor executor, int lanes) {
+        this.classConverter = classConverter;
+        this.executor = executor;
+        this.lanes = new Lane[lanes];
+
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Lane();
+        }
+    }
+
+    public <T> CompletableFuture<T> load(File file, FileStorage fileType, T loadClass) {
+        File key = file.getAbsoluteFile();
+        // a later save must not be coalesced into a save queued before this load, or the load would read it
+        pendingSaves.remove(key);
+
+        return submit(key, () -> {
+            classConverter.load(file, fileType, loadClass);
+            return loadClass;
+        });
+    }
+
+    /**
+     * @return A future completed with whether the file was written, shared by every save coalesced into the same write
+     */
+    public CompletableFuture<Boolean> save(File file, FileStorage fileType, Object saveClass) {
+        File key = file.getAbsoluteFile();
+        Map<String, Object> snapshot = classConverter.toSnapshot(saveClass);
+        PendingSave[] created = new PendingSave[1];
+
+        PendingSave pending = pendingSaves.compute(key, (path, existing) -> {
+            if (existing != null && existing.fileType == fileType && existing.replace(snapshot)) {
+                return existing;
+            }
+
+            return created[0] = new PendingSave(fileType, saveClass.getClass(), snapshot);
+        });
+
+        if (pending == created[0]) {
+            submit(key, () -> {
+                Map<String, Object> data = pending.take();
+                pendingSaves.remove(key, pending);
+
+                return classConverter.saveSnapshot(file, fileType, pending.type, data);
+            }).whenComplete((written, failure) -> {
+                if (failure != null) {
+                    pending.future.completeExceptionally(failure);
+                } else {
+                    pending.future.complete(written);
+                }
+            });
+        }
+
+        return pending.future;
+    }
+
+    private <T> CompletableFuture<T> submit(File file, Supplier<T> task) {
+        Lane lane = lanes[(file.hashCode() & Integer.MAX_VALUE) % lanes.length];
+
+        synchronized (lane) {
+            CompletableFuture<T> future = lane.tail.handle((result, failure) -> null).thenApplyAsync(ignored -> task.get(), executor);
+            lane.tail = future;
+
+            return future;
+        }
+    }
+
+    private static class Lane {
+        private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+    }
+
+    private static class PendingSave {
+
+        private final FileStorage fileType;
+        private final Class<?> type;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private Map<String, Object> snapshot;
+        private boolean started;
+
+        private PendingSave(FileStorage fileType, Class<?> type, Map<String, Object> snapshot) {
+            this.fileType = fileType;
+            this.type = type;
+            this.snapshot = snapshot;
+        }
+
+        private synchronized boolean replace(Map<String, Object> snapshot) {
+            if (started) {
+                return false;
+            }
+
+            this.snapshot = snapshot;
+            return true;
+        }
+
+        private synchronized Map<String, Object> take() {
+            started = true;
+            return snapshot;
+        }
+
+    }
+
+}
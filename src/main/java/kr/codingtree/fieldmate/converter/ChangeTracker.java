@@ -0,0 +1,252 @@
+package kr.codingtree.fieldmate.converter;
+
+import lombok.AllArgsConstructor;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers a fingerprint of the field map last written to each file, so {@link ClassConverter} can skip
+ * saves that would write the same content again.
+ * A file whose length or modification time differs from the ones recorded after the last save, or that was deleted, is written again.
+ * A rewrite by another process that keeps the length and lands within the modification time granularity of the file system
+ * cannot be told apart from the last save, so such a file is only written again once its fields change.
+ * Only the most recently saved files are remembered, up to a maximum number, so a converter saving many distinct files does not grow without bound.
+ */
+public class ChangeTracker {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final long SEED = 0xcbf29ce484222325L;
+    private static final long MULTIPLIER = 0x9e3779b97f4a7c15L;
+
+    /**
+     * The fingerprint of an empty sequence, extended by {@link #fingerprint(long, Object)}.
+     */
+    public static final long EMPTY = SEED;
+
+    private final LinkedHashMap<File, Snapshot> snapshots;
+
+    public ChangeTracker() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize The number of files to remember, the least recently used ones are forgotten first
+     */
+    public ChangeTracker(int maximumSize) {
+        this.snapshots = new LinkedHashMap<File, Snapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<File, Snapshot> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    public boolean isUnchanged(File file, long fingerprint) {
+        Snapshot snapshot = get(file);
+        return snapshot != null && snapshot.fingerprint == fingerprint;
+    }
+
+    /**
+     * @return Whether the file still has the length and modification time recorded after the last save,
+     * so a change reported for it was most likely caused by that save
+     */
+    public boolean isUnchanged(File file) {
+        return get(file) != null;
+    }
+
+    public void update(File file, long fingerprint) {
+        Snapshot snapshot = new Snapshot(fingerprint, file.lastModified(), file.length());
+
+        synchronized (snapshots) {
+            snapshots.put(file.getAbsoluteFile(), snapshot);
+        }
+    }
+
+    public void forget(File file) {
+        synchronized (snapshots) {
+            snapshots.remove(file.getAbsoluteFile());
+        }
+    }
+
+    public void clear() {
+        synchronized (snapshots) {
+            snapshots.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+
+    /**
+     * @return The snapshot of a file if it still has the length and modification time of the last save, forgetting it otherwise
+     */
+    private Snapshot get(File file) {
+        File path = file.getAbsoluteFile();
+        Snapshot snapshot;
+
+        synchronized (snapshots) {
+            snapshot = snapshots.get(path);
+        }
+
+        if (snapshot == null) {
+            return null;
+        } else if (!file.exists() || snapshot.lastModified != file.lastModified() || snapshot.length != file.length()) {
+            synchronized (snapshots) {
+                snapshots.remove(path, snapshot);
+            }
+
+            return null;
+        }
+
+        return snapshot;
+    }
+
+    public static long fingerprint(Class<?> format, Map<String, Object> data) {
+        long hash = hash(SEED, format.getName());
+
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            hash = mix(hash, fingerprint(entry.getKey(), entry.getValue()));
+        }
+
+        return hash;
+    }
+
+    /**
+     * Combines the fingerprints of single entries into the fingerprint of a map holding those entries in the same order,
+     * so a map that changed in one entry does not need to be hashed again as a whole.
+     *
+     * @param entries The fingerprints returned by {@link #fingerprint(String, Object)}
+     * @param count   The number of fingerprints to combine
+     * @return The same value {@link #fingerprint(Class, Map)} returns for the map
+     */
+    public static long fingerprint(Class<?> format, long[] entries, int count) {
+        long hash = hash(SEED, format.getName());
+
+        for (int i = 0; i < count; i++) {
+            hash = mix(hash, entries[i]);
+        }
+
+        return hash;
+    }
+
+    public static long fingerprint(String key, Object value) {
+        return hash(hash(SEED, key), value);
+    }
+
+    public static long fingerprint(Object value) {
+        return hash(SEED, value);
+    }
+
+    /**
+     * Extends the fingerprint of a sequence by one element, so a sequence that only grows does not need to be hashed again as a whole.
+     *
+     * @param hash {@link #EMPTY} or the fingerprint of the elements before this one
+     */
+    public static long fingerprint(long hash, Object value) {
+        return hash(hash, value);
+    }
+
+    private static long hash(long hash, Object value) {
+        if (value == null) {
+            return mix(hash, 'N');
+        } else if (value instanceof Map) {
+            hash = mix(hash, 'M');
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                hash = hash(hash, entry.getKey());
+                hash = hash(hash, entry.getValue());
+            }
+
+            return mix(hash, 'm');
+        } else if (value instanceof Collection) {
+            hash = mix(hash, 'C');
+
+            for (Object element : (Collection<?>) value) {
+                hash = hash(hash, element);
+            }
+
+            return mix(hash, 'c');
+        } else if (value.getClass().isArray()) {
+            return hashArray(hash, value);
+        } else if (value instanceof Double || value instanceof Float) {
+            return mix(mix(hash, 'D'), Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return mix(mix(hash, 'L'), ((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            return mix(hash, (Boolean) value ? 'T' : 'F');
+        }
+
+        String string = value.toString();
+        hash = mix(mix(hash, value.getClass().getName().hashCode()), string.length());
+
+        for (int i = 0; i < string.length(); i++) {
+            hash = mix(hash, string.charAt(i));
+        }
+
+        return hash;
+    }
+
+    private static long hashArray(long hash, Object array) {
+        hash = mix(mix(hash, 'A'), array.getClass().getName().hashCode());
+
+        if (array instanceof int[]) {
+            for (int value : (int[]) array) {
+                hash = mix(hash, value);
+            }
+        } else if (array instanceof long[]) {
+            for (long value : (long[]) array) {
+                hash = mix(hash, value);
+            }
+        } else if (array instanceof double[]) {
+            for (double value : (double[]) array) {
+                hash = mix(hash, Double.doubleToLongBits(value));
+            }
+        } else if (array instanceof float[]) {
+            for (float value : (float[]) array) {
+                hash = mix(hash, Float.floatToIntBits(value));
+            }
+        } else if (array instanceof short[]) {
+            for (short value : (short[]) array) {
+                hash = mix(hash, value);
+            }
+        } else if (array instanceof byte[]) {
+            for (byte value : (byte[]) array) {
+                hash = mix(hash, value);
+            }
+        } else if (array instanceof boolean[]) {
+            for (boolean value : (boolean[]) array) {
+                hash = mix(hash, value ? 'T' : 'F');
+            }
+        } else if (array instanceof char[]) {
+            for (char value : (char[]) array) {
+                hash = mix(hash, value);
+            }
+        } else {
+            for (Object value : (Object[]) array) {
+                hash = hash(hash, value);
+            }
+        }
+
+        return mix(hash, 'a');
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * MULTIPLIER;
+        return hash ^ (hash >>> 29);
+    }
+
+    @AllArgsConstructor
+    private static class Snapshot {
+        private final long fingerprint;
+        private final long lastModified;
+        private final long length;
+    }
+
+}
@@ -0,0 +1,22 @@
+package kr.codingtree.fieldmate.converter;
+
+/**
+ * Reflection-free field access for a single class, generated at compile time by
+ * {@link kr.codingtree.fieldmate.processor.BinderProcessor}.
+ * Binders only cover non-private, non-final fields.
+ * {@link ClassBinding} uses it in place of method handles for the fields it covers and binds the others through reflection.
+ */
+public interface ClassBinder {
+
+    String SUFFIX = "_FieldMateBinder";
+
+    /**
+     * @return The Java names of the fields this binder can access, indexed the same way as {@link #get} and {@link #set}
+     */
+    String[] getFieldNames();
+
+    Object get(Object target, int index);
+
+    void set(Object target, int index, Object value);
+
+}
@@ -0,0 +1,127 @@
+package kr.codingtree.fieldmate.converter;
+
+import kr.codingtree.fieldmate.annotation.ExcludeField;
+import kr.codingtree.fieldmate.annotation.FieldGroup;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Binding plan of a class: the {@link FieldBinding} of every field that is not excluded, in declaration order,
+ * an index of those bindings by file key and the file keys of every {@link FieldGroup}.
+ */
+@Getter
+public class ClassBinding {
+
+    private final Class<?> type;
+    private final FieldBinding[] fields;
+
+    @Getter(AccessLevel.NONE)
+    private final HashMap<String, FieldBinding> names = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final HashMap<String, Set<String>> groups = new HashMap<>();
+
+    public ClassBinding(Class<?> type) {
+        this.type = type;
+
+        ArrayList<Field> declared = new ArrayList<>();
+
+        for (Field field : type.getDeclaredFields()) {
+            if (field.getAnnotation(ExcludeField.class) == null) {
+                declared.add(field);
+            }
+        }
+
+        ClassBinder binder = findBinder(type);
+        List<String> binderFields = binder != null ? Arrays.asList(binder.getFieldNames()) : Collections.emptyList();
+
+        ArrayList<FieldBinding> list = new ArrayList<>();
+
+        for (Field field : declared) {
+            // fields the binder does not cover, because they are private or final or were added after it was generated, use method handles
+            int index = binderFields.indexOf(field.getName());
+            FieldBinding binding = index != -1 ? new FieldBinding(field, binder, index) : new FieldBinding(field);
+
+            list.add(binding);
+            names.put(binding.getName(), binding);
+
+            FieldGroup fieldGroup = field.getAnnotation(FieldGroup.class);
+
+            if (fieldGroup != null) {
+                for (String group : fieldGroup.value()) {
+                    groups.computeIfAbsent(group, key -> new HashSet<>()).add(binding.getName());
+                }
+            }
+        }
+
+        this.fields = list.toArray(new FieldBinding[0]);
+    }
+
+    public FieldBinding getField(String name) {
+        return names.get(name);
+    }
+
+    /**
+     * @return The file keys of the fields in the given {@link FieldGroup}, empty if no field is in it
+     */
+    public Set<String> getGroup(String group) {
+        Set<String> keys = groups.get(group);
+        return keys != null ? Collections.unmodifiableSet(keys) : Collections.emptySet();
+    }
+
+    /**
+     * Resolves field names to file keys.
+     *
+     * @param fieldNames Java field names or file keys
+     * @return The file keys of the named fields
+     * @throws IllegalArgumentException If a name does not match any bound field
+     */
+    public Set<String> getKeys(Collection<String> fieldNames) {
+        HashSet<String> keys = new HashSet<>();
+
+        for (String fieldName : fieldNames) {
+            FieldBinding binding = names.get(fieldName);
+
+            for (int i = 0; binding == null && i < fields.length; i++) {
+                if (fields[i].getField().getName().equals(fieldName)) {
+                    binding = fields[i];
+                }
+            }
+
+            if (binding == null) {
+                throw new IllegalArgumentException("No field " + fieldName + " in " + type.getName());
+            }
+
+            keys.add(binding.getName());
+        }
+
+        return keys;
+    }
+
+    private ClassBinder findBinder(Class<?> type) {
+        String name = type.getName();
+        String packageName = name.lastIndexOf('.') != -1 ? name.substring(0, name.lastIndexOf('.') + 1) : "";
+
+        try {
+            Class<?> binderClass = Class.forName(packageName + name.substring(packageName.length()).replace('$', '_') + ClassBinder.SUFFIX, true, type.getClassLoader());
+
+            if (ClassBinder.class.isAssignableFrom(binderClass)) {
+                return (ClassBinder) binderClass.newInstance();
+            }
+        } catch (ClassNotFoundException | LinkageError | InstantiationException | IllegalAccessException e) {
+            // no usable generated binder, fall back to method handles
+        }
+
+        return null;
+    }
+
+}
@@ -1,88 +1,641 @@
 package kr.codingtree.fieldmate.converter;
 
-import kr.codingtree.fieldmate.annotation.ExcludeField;
-import kr.codingtree.fieldmate.annotation.FieldName;
+import kr.codingtree.fieldmate.file.FieldVisitor;
 import kr.codingtree.fieldmate.file.FileStorage;
+import kr.codingtree.fieldmate.metrics.MetricsListener;
+import kr.codingtree.fieldmate.metrics.Phase;
+import kr.codingtree.fieldmate.metrics.PipelineEvent;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.SneakyThrows;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.lang.reflect.Field;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class ClassConverter {
 
     private final FieldConverter converter;
 
+    @Getter
+    @Setter
+    private volatile MetricsListener metricsListener = MetricsListener.NONE;
+
+    private final ClassValue<ClassBinding> bindings = new ClassValue<ClassBinding>() {
+        @Override
+        protected ClassBinding computeValue(Class<?> type) {
+            return new ClassBinding(type);
+        }
+    };
+
+    @Getter
+    private final ChangeTracker changeTracker = new ChangeTracker();
+
+    private final ConcurrentHashMap<Class<? extends FileStorage>, FileStorage> storages = new ConcurrentHashMap<>();
+
+    // entries rendered by saveField per file, dropped whenever the file is loaded or saved otherwise
+    private final ConcurrentHashMap<File, RenderedDocument> documents = new ConcurrentHashMap<>();
+
     public void load(File file, Class<? extends FileStorage> fileType, Object loadClass) {
         try {
-            load(file, fileType.newInstance(), loadClass);
+            load(file, getStorage(fileType), loadClass);
         } catch (InstantiationException | IllegalAccessException e) {
             e.printStackTrace();
         }
     }
 
-    @SneakyThrows(Exception.class)
     public void load(File file, FileStorage fileType, Object loadClass) {
-        LinkedHashMap<String, Object> map = fileType.load(file);
+        load(file, fileType, loadClass, (Set<String>) null);
+    }
 
-        for (Field field : loadClass.getClass().getDeclaredFields()) {
-            if (field.getAnnotation(ExcludeField.class) == null) {
-                field.setAccessible(true);
+    public void loadFields(File file, FileStorage fileType, Object loadClass, Collection<String> fieldNames) {
+        load(file, fileType, loadClass, getBinding(loadClass.getClass()).getKeys(fieldNames));
+    }
 
-                FieldName fieldName = field.getAnnotation(FieldName.class);
-                String name;
+    public void loadGroup(File file, FileStorage fileType, Object loadClass, String group) {
+        load(file, fileType, loadClass, getBinding(loadClass.getClass()).getGroup(group));
+    }
 
-                if (fieldName != null) {
-                    name = fieldName.value();
-                } else {
-                    name = field.getName();
-                }
+    /**
+     * @param keys The file keys to bind, or null to bind every field. Entries with other keys are skipped unread where the format allows it.
+     */
+    @SneakyThrows(Exception.class)
+    public void load(File file, FileStorage fileType, Object loadClass, Set<String> keys) {
+        MetricsListener listener = metricsListener;
+        PipelineEvent event = listener != MetricsListener.NONE ? new PipelineEvent(PipelineEvent.Operation.LOAD, loadClass.getClass(), fileType.getClass()) : null;
 
-                Object value = converter.deserialize(field, field.get(loadClass), map.get(name));
+        try {
+            load(file, fileType, loadClass, keys, event);
+        } catch (Throwable t) {
+            if (event != null) {
+                event.setFailure(t);
+            }
 
-                if (value != null) {
-                    field.set(loadClass, value);
-                }
+            throw t;
+        } finally {
+            if (event != null) {
+                listener.onEvent(event);
+            }
+        }
+    }
+
+    private void load(File file, FileStorage fileType, Object loadClass, Set<String> keys, PipelineEvent event) {
+        ClassBinding classBinding = getBinding(loadClass.getClass());
+        documents.remove(file.getAbsoluteFile());
+        long start = event != null ? System.nanoTime() : 0;
+
+        fileType.load(file, new FieldVisitor() {
+            @Override
+            public boolean accepts(String name) {
+                return (keys == null || keys.contains(name)) && classBinding.getField(name) != null;
+            }
+
+            @Override
+            public void visit(String name, Object fileValue) {
+                bind(classBinding.getField(name), loadClass, fileValue, event);
+            }
+        });
+
+        if (event != null) {
+            // entries are converted and bound while the file is still being parsed
+            event.addNanos(Phase.READ, System.nanoTime() - start - event.getNanos(Phase.CONVERT) - event.getNanos(Phase.BIND));
+            event.setBytes(file.length());
+        }
+    }
+
+    /**
+     * Binds already parsed entries to the fields of an object, ignoring keys without a matching field.
+     */
+    public void bind(Map<String, Object> data, Object loadClass) {
+        ClassBinding classBinding = getBinding(loadClass.getClass());
+
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            FieldBinding binding = classBinding.getField(entry.getKey());
+
+            if (binding != null) {
+                bind(binding, loadClass, entry.getValue(), null);
             }
         }
     }
 
-    public void save(File file, Class<? extends FileStorage> fileType, Object saveClass) {
+    private void bind(FieldBinding binding, Object loadClass, Object fileValue, PipelineEvent event) {
+        long time = event != null ? System.nanoTime() : 0;
+        Object fieldValue = binding.get(loadClass);
+        time = lap(event, Phase.BIND, time);
+
+        Object value = converter.deserialize(binding, fieldValue, fileValue);
+        time = lap(event, Phase.CONVERT, time);
+
+        if (value != null) {
+            binding.set(loadClass, value);
+        }
+
+        if (event != null) {
+            lap(event, Phase.BIND, time);
+            event.setFieldCount(event.getFieldCount() + 1);
+        }
+    }
+
+    public <T> LoadResult<T> loadAll(Collection<File> files, FileStorage fileType, Function<File, ? extends T> factory, Executor executor) {
+        LinkedHashMap<File, CompletableFuture<T>> futures = new LinkedHashMap<>();
+
+        for (File file : files) {
+            futures.put(file, CompletableFuture.supplyAsync(() -> {
+                T loadClass = factory.apply(file);
+                load(file, fileType, loadClass);
+                return loadClass;
+            }, executor));
+        }
+
+        LoadResult<T> result = new LoadResult<>();
+
+        for (Map.Entry<File, CompletableFuture<T>> entry : futures.entrySet()) {
+            try {
+                result.getLoaded().put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException e) {
+                result.getFailures().put(entry.getKey(), e.getCause() != null ? e.getCause() : e);
+            }
+        }
+
+        return result;
+    }
+
+    public boolean save(File file, Class<? extends FileStorage> fileType, Object saveClass) {
         try {
-            save(file, fileType.newInstance(), saveClass);
+            return save(file, getStorage(fileType), saveClass);
         } catch (InstantiationException | IllegalAccessException e) {
             e.printStackTrace();
         }
+
+        return false;
     }
 
-    @SneakyThrows(Exception.class)
-    public void save(File file, FileStorage fileType, Object saveClass) {
-        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+    public boolean save(File file, FileStorage fileType, Object saveClass) {
+        return save(file, fileType, saveClass.getClass(), saveClass, null);
+    }
 
-        for (Field field : saveClass.getClass().getDeclaredFields()) {
-            if (field.getAnnotation(ExcludeField.class) == null) {
-                field.setAccessible(true);
+    /**
+     * Saves entries captured earlier with {@link #toSnapshot(Object)}, so the fields can be read on one thread and written on another.
+     *
+     * @param type     The class the snapshot was taken from
+     * @param snapshot The entries to save, which must not be modified anymore
+     */
+    public boolean saveSnapshot(File file, FileStorage fileType, Class<?> type, Map<String, Object> snapshot) {
+        return save(file, fileType, type, null, snapshot);
+    }
 
-                Object value = converter.serialize(field, field.get(saveClass));
+    private boolean save(File file, FileStorage fileType, Class<?> type, Object saveClass, Map<String, Object> snapshot) {
+        MetricsListener listener = metricsListener;
+        PipelineEvent event = listener != MetricsListener.NONE ? new PipelineEvent(PipelineEvent.Operation.SAVE, type, fileType.getClass()) : null;
 
-                if (value != null) {
-                    FieldName fieldName = field.getAnnotation(FieldName.class);
-                    String name;
+        documents.remove(file.getAbsoluteFile());
 
-                    if (fieldName != null) {
-                        name = fieldName.value();
-                    } else {
-                        name = field.getName();
+        try {
+            return write(file, fileType, snapshot != null ? snapshot : toMap(saveClass, event), event);
+        } catch (Throwable t) {
+            if (event != null) {
+                event.setFailure(t);
+            }
+
+            throw t;
+        } finally {
+            if (event != null) {
+                listener.onEvent(event);
+            }
+        }
+    }
+
+    private boolean write(File file, FileStorage fileType, Map<String, Object> map, PipelineEvent event) {
+        long time = event != null ? System.nanoTime() : 0;
+        long fingerprint = ChangeTracker.fingerprint(fileType.getClass(), map);
+        lap(event, Phase.FINGERPRINT, time);
+
+        return write(file, fileType, map, fingerprint, event);
+    }
+
+    private boolean write(File file, FileStorage fileType, Map<String, Object> map, long fingerprint, PipelineEvent event) {
+        long time = event != null ? System.nanoTime() : 0;
+
+        if (event != null) {
+            event.setFieldCount(map.size());
+        }
+
+        if (changeTracker.isUnchanged(file, fingerprint)) {
+            if (event != null) {
+                event.setSkipped(true);
+            }
+
+            return false;
+        }
+
+        try {
+            fileType.save(file, map);
+        } catch (Throwable t) {
+            changeTracker.forget(file);
+            throw t;
+        }
+
+        changeTracker.update(file, fingerprint);
+
+        if (event != null) {
+            lap(event, Phase.WRITE, time);
+            event.setBytes(file.length());
+        }
+
+        return true;
+    }
+
+    public boolean saveField(File file, Class<? extends FileStorage> fileType, Object saveClass, String fieldName) {
+        try {
+            return saveField(file, getStorage(fileType), saveClass, fieldName);
+        } catch (InstantiationException | IllegalAccessException e) {
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    /**
+     * Saves an object after only one of its fields changed, serializing just that field.
+     * The other entries are reused as the previous saveField of the same object to the same file rendered them, so fields modified since then are not saved by this call.
+     * The first call for a file, the first one for another object, and the first one after the file was loaded, saved by other means or modified elsewhere,
+     * renders every field.
+     * Fields handed to the storage as they are, such as Collections of java.lang types, are rendered on every call.
+     *
+     * @param fieldName The Java name or file key of the changed field
+     * @return Whether the file was written, false if its content would not have changed since the last save
+     * @throws IllegalArgumentException If the class has no such field
+     */
+    public boolean saveField(File file, FileStorage fileType, Object saveClass, String fieldName) {
+        ClassBinding classBinding = getBinding(saveClass.getClass());
+        FieldBinding binding = classBinding.getField(classBinding.getKeys(Collections.singleton(fieldName)).iterator().next());
+        FieldBinding[] bindings = classBinding.getFields();
+        int index = Arrays.asList(bindings).indexOf(binding);
+
+        MetricsListener listener = metricsListener;
+        PipelineEvent event = listener != MetricsListener.NONE ? new PipelineEvent(PipelineEvent.Operation.SAVE, saveClass.getClass(), fileType.getClass()) : null;
+
+        File path = file.getAbsoluteFile();
+        RenderedDocument document = documents.compute(path, (key, existing) -> existing != null && existing.fileType == fileType && existing.owner.get() == saveClass
+                ? existing : new RenderedDocument(fileType, saveClass, bindings.length));
+
+        try {
+            synchronized (document) {
+                boolean current = document.rendered && file.length() == document.length && file.lastModified() == document.lastModified;
+
+                for (int i = 0; i < bindings.length; i++) {
+                    if (!current || i == index || document.live[i]) {
+                        render(document, bindings[i], i, saveClass, event);
+                    }
+                }
+
+                document.rendered = true;
+
+                FieldMap map = new FieldMap(bindings.length);
+                long[] fingerprints = new long[bindings.length];
+                int count = 0;
+
+                for (int i = 0; i < bindings.length; i++) {
+                    if (document.values[i] != null) {
+                        map.add(bindings[i].getName(), document.values[i]);
+                        fingerprints[count++] = document.fingerprints[i];
                     }
+                }
+
+                boolean written = write(file, fileType, map, ChangeTracker.fingerprint(fileType.getClass(), fingerprints, count), event);
+
+                document.length = file.length();
+                document.lastModified = file.lastModified();
+
+                return written;
+            }
+        } catch (Throwable t) {
+            documents.remove(path, document);
+
+            if (event != null) {
+                event.setFailure(t);
+            }
+
+            throw t;
+        } finally {
+            if (event != null) {
+                listener.onEvent(event);
+            }
+        }
+    }
+
+    private void render(RenderedDocument document, FieldBinding binding, int index, Object saveClass, PipelineEvent event) {
+        long time = event != null ? System.nanoTime() : 0;
+        Object fieldValue = binding.get(saveClass);
+        time = lap(event, Phase.BIND, time);
+
+        Object value = converter.serialize(binding, fieldValue);
+        time = lap(event, Phase.CONVERT, time);
+
+        document.values[index] = value;
+        document.fingerprints[index] = value != null ? ChangeTracker.fingerprint(binding.getName(), value) : 0;
+        // a container passed through unconverted can change without its field being saved, so it is never reused
+        document.live[index] = value != null && value == fieldValue && (value instanceof Collection || value instanceof Map || value.getClass().isArray());
+        lap(event, Phase.FINGERPRINT, time);
+    }
+
+    /**
+     * Saves many objects as one batch, so a checkpoint pays for one round of disk flushes instead of one per file.
+     * Every file is rendered to a temporary file next to it and forced to the device on the executor,
+     * then the temporary files are renamed over their targets and each directory involved is forced once.
+     * A crash therefore leaves every file either fully old or fully new, and every file reported as written is durable when this returns.
+     * The fields of an object are read on the executor, so the objects must not be modified until this returns.
+     * A file that fails to save is reported in the result instead of aborting the remaining files.
+     *
+     * @param objects The object to save per file
+     */
+    public SaveResult saveAll(Map<File, ?> objects, FileStorage fileType, Executor executor) {
+        MetricsListener listener = metricsListener;
+        LinkedHashMap<File, CompletableFuture<StagedFile>> futures = new LinkedHashMap<>();
+
+        for (Map.Entry<File, ?> entry : objects.entrySet()) {
+            File file = entry.getKey();
+            Object saveClass = entry.getValue();
+
+            futures.put(file, CompletableFuture.supplyAsync(() -> stage(file, fileType, saveClass, listener), executor));
+        }
+
+        SaveResult result = new SaveResult();
+        LinkedHashSet<File> directories = new LinkedHashSet<>();
+
+        for (Map.Entry<File, CompletableFuture<StagedFile>> entry : futures.entrySet()) {
+            File file = entry.getKey();
+            StagedFile staged;
+
+            try {
+                staged = entry.getValue().join();
+            } catch (CompletionException e) {
+                result.getFailures().put(file, e.getCause() != null ? e.getCause() : e);
+                continue;
+            }
+
+            if (staged == null) {
+                result.getSaved().put(file, false);
+                continue;
+            }
+
+            try {
+                commit(file, staged);
+                directories.add(staged.temp.getParentFile());
+                result.getSaved().put(file, true);
+            } catch (Throwable t) {
+                staged.temp.delete();
+                changeTracker.forget(file);
+                result.getFailures().put(file, t);
+
+                if (staged.event != null) {
+                    staged.event.setFailure(t);
+                }
+            } finally {
+                if (staged.event != null) {
+                    listener.onEvent(staged.event);
+                }
+            }
+        }
+
+        for (File directory : directories) {
+            syncDirectory(directory);
+        }
 
-                    map.put(name, value);
+        return result;
+    }
+
+    /**
+     * Writes the entries of an object to a forced temporary file in the directory of its target.
+     *
+     * @return The temporary file, or null if the target already holds the same entries
+     */
+    @SneakyThrows(IOException.class)
+    private StagedFile stage(File file, FileStorage fileType, Object saveClass, MetricsListener listener) {
+        PipelineEvent event = listener != MetricsListener.NONE ? new PipelineEvent(PipelineEvent.Operation.SAVE, saveClass.getClass(), fileType.getClass()) : null;
+        File temp = null;
+
+        try {
+            Map<String, Object> map = toMap(saveClass, event);
+            long time = event != null ? System.nanoTime() : 0;
+            long fingerprint = ChangeTracker.fingerprint(fileType.getClass(), map);
+            time = lap(event, Phase.FINGERPRINT, time);
+
+            if (event != null) {
+                event.setFieldCount(map.size());
+            }
+
+            if (changeTracker.isUnchanged(file, fingerprint)) {
+                if (event != null) {
+                    event.setSkipped(true);
+                    listener.onEvent(event);
                 }
+
+                return null;
+            }
+
+            File directory = file.getAbsoluteFile().getParentFile();
+            directory.mkdirs();
+            temp = File.createTempFile("." + file.getName() + "-", ".tmp", directory);
+
+            try (FileOutputStream fos = new FileOutputStream(temp)) {
+                BufferedOutputStream bos = new BufferedOutputStream(fos);
+                fileType.write(bos, map);
+                bos.flush();
+                fos.getChannel().force(true);
+            }
+
+            lap(event, Phase.WRITE, time);
+            return new StagedFile(temp, fingerprint, event);
+        } catch (Throwable t) {
+            if (temp != null) {
+                temp.delete();
             }
+
+            if (event != null) {
+                event.setFailure(t);
+                listener.onEvent(event);
+            }
+
+            throw t;
+        }
+    }
+
+    @SneakyThrows(IOException.class)
+    private void commit(File file, StagedFile staged) {
+        long time = staged.event != null ? System.nanoTime() : 0;
+
+        documents.remove(file.getAbsoluteFile());
+
+        try {
+            Files.move(staged.temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(staged.temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        changeTracker.update(file, staged.fingerprint);
+
+        if (staged.event != null) {
+            lap(staged.event, Phase.WRITE, time);
+            staged.event.setBytes(file.length());
         }
+    }
+
+    /**
+     * Forces a directory, so the renames into it survive a crash.
+     */
+    private void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories cannot be opened on every platform, e.g. Windows, where the rename itself is durable
+        }
+    }
+
+    /**
+     * Serializes the fields of an object into the entries that would be saved to its file.
+     */
+    public Map<String, Object> toMap(Object saveClass) {
+        return toMap(saveClass, null);
+    }
+
+    /**
+     * Serializes the fields of an object like {@link #toMap(Object)}, but copies the values the entries would otherwise share with the fields,
+     * so the entries can be saved later while the object keeps changing.
+     * Only collections of java.lang values and primitive arrays are shared, every other value is created by its conversion, so nothing is deep copied.
+     */
+    public Map<String, Object> toSnapshot(Object saveClass) {
+        return toMap(saveClass, null, true);
+    }
+
+    private FieldMap toMap(Object saveClass, PipelineEvent event) {
+        return toMap(saveClass, event, false);
+    }
+
+    private FieldMap toMap(Object saveClass, PipelineEvent event, boolean snapshot) {
+        FieldBinding[] bindings = getBinding(saveClass.getClass()).getFields();
+        FieldMap map = new FieldMap(bindings.length);
+        long time = event != null ? System.nanoTime() : 0;
+
+        for (FieldBinding binding : bindings) {
+            Object fieldValue = binding.get(saveClass);
+            time = lap(event, Phase.BIND, time);
+
+            Object value = converter.serialize(binding, fieldValue);
+
+            if (snapshot && value == fieldValue) {
+                value = copy(value);
+            }
+
+            time = lap(event, Phase.CONVERT, time);
+
+            if (value != null) {
+                map.add(binding.getName(), value);
+            }
+        }
+
+        return map;
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<?>) value);
+        } else if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object array = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, array, 0, length);
+
+            return array;
+        }
+
+        return value;
+    }
+
+    private long lap(PipelineEvent event, Phase phase, long start) {
+        if (event == null) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        event.addNanos(phase, now - start);
+
+        return now;
+    }
+
+    public FileStorage getStorage(Class<? extends FileStorage> fileType) throws InstantiationException, IllegalAccessException {
+        FileStorage storage = storages.get(fileType);
+
+        if (storage == null) {
+            storage = fileType.newInstance();
+
+            FileStorage previous = storages.putIfAbsent(fileType, storage);
+
+            if (previous != null) {
+                storage = previous;
+            }
+        }
+
+        return storage;
+    }
+
+    public ClassBinding getBinding(Class<?> type) {
+        return bindings.get(type);
+    }
+
+    private static class RenderedDocument {
+
+        private final FileStorage fileType;
+        // the entries are only valid for the object they were rendered from, which the cache must not keep alive
+        private final WeakReference<Object> owner;
+
+        // per field binding, null where the field is not saved
+        private final Object[] values;
+        private final long[] fingerprints;
+        private final boolean[] live;
+
+        private boolean rendered;
+        private long length;
+        private long lastModified;
+
+        private RenderedDocument(FileStorage fileType, Object owner, int size) {
+            this.fileType = fileType;
+            this.owner = new WeakReference<>(owner);
+            this.values = new Object[size];
+            this.fingerprints = new long[size];
+            this.live = new boolean[size];
+        }
+
+    }
 
-        fileType.save(file, map);
+    @AllArgsConstructor
+    private static class StagedFile {
+        private final File temp;
+        private final long fingerprint;
+        private final PipelineEvent event;
     }
 
 }
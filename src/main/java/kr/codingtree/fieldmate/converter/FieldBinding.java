@@ -0,0 +1,151 @@
+package kr.codingtree.fieldmate.converter;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.annotation.FieldName;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Pre-resolved binding of a single field, created once per class by {@link ClassConverter}.
+ * Holds the file key, the generic type arguments and either a generated {@link ClassBinder} or method handles for reading and writing the field,
+ * so the load/save path does not need to repeat annotation lookups or reflective access checks.
+ */
+@Getter
+public class FieldBinding {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final String name;
+    private final Type[] typeArguments;
+
+    @Getter(AccessLevel.NONE)
+    private final ClassBinder binder;
+    @Getter(AccessLevel.NONE)
+    private final int index;
+
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle getter;
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle setter;
+
+    @Getter(AccessLevel.NONE)
+    private volatile ResolvedConverters converters;
+
+    public FieldBinding(Field field) {
+        this(field, null, -1);
+    }
+
+    /**
+     * @param binder A generated binder to access the field through instead of method handles, or null
+     * @param index  The index of the field in the binder
+     */
+    @SneakyThrows(IllegalAccessException.class)
+    public FieldBinding(Field field, ClassBinder binder, int index) {
+        FieldName fieldName = field.getAnnotation(FieldName.class);
+
+        this.field = field;
+        this.name = fieldName != null ? fieldName.value() : field.getName();
+        this.typeArguments = field.getGenericType() instanceof ParameterizedType ? ((ParameterizedType) field.getGenericType()).getActualTypeArguments() : null;
+        this.binder = binder;
+        this.index = index;
+
+        if (binder != null) {
+            this.getter = null;
+            this.setter = null;
+            return;
+        }
+
+        field.setAccessible(true);
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+        MethodHandle getter = lookup.unreflectGetter(field);
+
+        if (isStatic) {
+            getter = MethodHandles.dropArguments(getter, 0, Object.class);
+        }
+
+        this.getter = getter.asType(GETTER_TYPE);
+
+        MethodHandle setter;
+
+        try {
+            setter = lookup.unreflectSetter(field);
+
+            if (isStatic) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+
+            setter = setter.asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            // static final fields cannot be written through a handle, fall back to Field#set
+            setter = null;
+        }
+
+        this.setter = setter;
+    }
+
+    /**
+     * @return Whether the field is accessed through a generated {@link ClassBinder} instead of method handles
+     */
+    public boolean isGenerated() {
+        return binder != null;
+    }
+
+    @SneakyThrows
+    public Object get(Object target) {
+        if (binder != null) {
+            return binder.get(target, index);
+        }
+
+        return (Object) getter.invokeExact(target);
+    }
+
+    @SneakyThrows
+    public void set(Object target, Object value) {
+        if (binder != null) {
+            binder.set(target, index, value);
+        } else if (setter != null) {
+            setter.invokeExact(target, value);
+        } else {
+            field.set(target, value);
+        }
+    }
+
+    /**
+     * Returns the converters for the generic type arguments of this field, resolving them again only when
+     * the registry has been modified since the last lookup.
+     *
+     * @param registry The registry to resolve converters from
+     * @return The converter per type argument, with null where no converter is registered
+     */
+    public ValueConverter[] getConverters(ConverterRegistry registry) {
+        ResolvedConverters resolved = converters;
+        int version = registry.getVersion();
+
+        if (resolved == null || resolved.version != version) {
+            converters = resolved = new ResolvedConverters(version, registry.getConverters(typeArguments));
+        }
+
+        return resolved.converters;
+    }
+
+    @AllArgsConstructor
+    private static class ResolvedConverters {
+        private final int version;
+        private final ValueConverter[] converters;
+    }
+
+}
@@ -1,139 +1,194 @@
 package kr.codingtree.fieldmate.converter;
 
 import kr.codingtree.fieldmate.ConverterRegistry;
-import lombok.AllArgsConstructor;
+import kr.codingtree.fieldmate.metrics.MetricsListener;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.SneakyThrows;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-
-@AllArgsConstructor
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
 public class FieldConverter {
 
     private final ConverterRegistry registry;
 
+    @Getter
+    @Setter
+    private volatile MetricsListener metricsListener = MetricsListener.NONE;
+
+    /**
+     * The number of entries from which a Map or Collection field is converted in parallel.
+     */
+    @Getter
+    @Setter
+    private volatile int parallelThreshold = 100_000;
+
+    /**
+     * The pool that keys and string values of loaded fields are deduplicated through, or null to keep them as parsed.
+     */
+    @Getter
+    @Setter
+    private volatile StringPool stringPool;
+
     public Object serialize(Field field, Object fieldValue) {
         if (field == null || fieldValue == null) {
             return null;
         }
 
-        if (fieldValue instanceof Map && field.getGenericType() instanceof ParameterizedType) {
-            Type[] types = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
+        Type[] types = getTypeArguments(field);
+        return serialize(types, registry.getConverters(types), fieldValue);
+    }
+
+    public Object serialize(FieldBinding binding, Object fieldValue) {
+        if (binding == null || fieldValue == null) {
+            return null;
+        }
+
+        return serialize(binding.getTypeArguments(), binding.getConverters(registry), fieldValue);
+    }
 
+    private Object serialize(Type[] types, ValueConverter[] converters, Object fieldValue) {
+        if (fieldValue instanceof Map && types != null) {
             if (types.length == 2) {
-                ValueConverter keySerializer = registry.getConverter(types[0]),
-                        valueSerializer = registry.getConverter(types[1]);
+                ValueConverter keySerializer = converters[0],
+                        valueSerializer = converters[1];
 
-                if ((keySerializer == null && !isDefaultClass(types[0].getTypeName())) || (valueSerializer == null && !isDefaultClass(types[1].getTypeName()))) {
+                if (isMissing(keySerializer, types[0]) | isMissing(valueSerializer, types[1])) {
                     return null;
                 }
 
                 Map<?, ?> map = (Map) fieldValue;
-                LinkedHashMap<String, String> result = new LinkedHashMap<>();
+                LinkedHashMap<Object, Object> result = new LinkedHashMap<>(capacity(map.size()));
 
-                for (Map.Entry entry : map.entrySet()) {
-                    String key = keySerializer != null ? keySerializer.serialize(entry.getKey()) : String.valueOf(entry.getKey()),
-                            value = valueSerializer != null ? valueSerializer.serialize(entry.getValue()) : String.valueOf(entry.getValue());
-
-                    result.put(key, value);
-                }
+                convertEntries(map, result,
+                        key -> keySerializer != null ? keySerializer.serialize(key) : String.valueOf(key),
+                        value -> valueSerializer != null ? toFileValue(valueSerializer, value) : String.valueOf(value));
 
                 return result;
             }
-        } else if (fieldValue instanceof Collection && field.getGenericType() instanceof ParameterizedType) {
-            Type[] types = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
-
+        } else if (fieldValue instanceof Collection && types != null) {
             if (types.length == 1) {
                 if (isDefaultClass(types[0].getTypeName())) {
                     return fieldValue;
                 }
 
-                ValueConverter valueSerializer = registry.getConverter(types[0]);
+                ValueConverter valueSerializer = converters[0];
 
-                if (valueSerializer == null) {
+                if (isMissing(valueSerializer, types[0])) {
                     return null;
                 }
 
                 Collection<?> collection = (Collection<?>) fieldValue;
-                ArrayList<String> result = new ArrayList<>();
+                ArrayList<Object> result = new ArrayList<>(collection.size());
 
-                for (Object object : collection) {
-                    result.add(valueSerializer.serialize(object));
-                }
+                convertElements(collection, result, element -> toFileValue(valueSerializer, element));
 
                 return result;
             }
+        } else if (isPrimitiveArray(fieldValue.getClass())) {
+            // handed to the storage as is, so elements are written without boxing
+            return fieldValue instanceof char[] ? new String((char[]) fieldValue) : fieldValue;
         } else if (isDefaultClass(fieldValue.getClass().getName())) {
             return fieldValue;
         } else {
             ValueConverter valueSerializer = registry.getConverter(fieldValue);
 
             if (valueSerializer != null) {
-                return valueSerializer.serialize(fieldValue);
+                return toFileValue(valueSerializer, fieldValue);
             }
+
+            metricsListener.onConverterMiss(fieldValue.getClass());
         }
         return null;
     }
 
-    @SneakyThrows(Exception.class)
     public Object deserialize(Field field, Object fieldValue, Object fileValue) {
         if (field == null || fileValue == null) {
             return null;
         }
 
-        if (fieldValue instanceof Map && field.getGenericType() instanceof ParameterizedType) {
-            Type[] types = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
+        Type[] types = getTypeArguments(field);
+        return deserialize(field, types, registry.getConverters(types), fieldValue, fileValue);
+    }
+
+    public Object deserialize(FieldBinding binding, Object fieldValue, Object fileValue) {
+        if (binding == null || fileValue == null) {
+            return null;
+        }
 
+        return deserialize(binding.getField(), binding.getTypeArguments(), binding.getConverters(registry), fieldValue, fileValue);
+    }
+
+    @SneakyThrows(Exception.class)
+    private Object deserialize(Field field, Type[] types, ValueConverter[] converters, Object fieldValue, Object fileValue) {
+        if (fieldValue instanceof Map && types != null) {
             if (types.length == 2) {
-                ValueConverter keySerializer = registry.getConverter(types[0]),
-                        valueSerializer = registry.getConverter(types[1]);
+                ValueConverter keySerializer = converters[0],
+                        valueSerializer = converters[1];
 
-                if ((keySerializer == null && !isDefaultClass(types[0].getTypeName())) || (valueSerializer == null && !isDefaultClass(types[1].getTypeName()))) {
+                if (isMissing(keySerializer, types[0]) | isMissing(valueSerializer, types[1])) {
                     return fieldValue;
                 }
 
-                Map result = (Map) fieldValue.getClass().newInstance();
-                LinkedHashMap<String, Object> map = (LinkedHashMap<String, Object>) fileValue;
+                Map<?, ?> map = (Map<?, ?>) fileValue;
+                Map<Object, Object> result = newMap(fieldValue.getClass(), field.getType(), map.size());
 
-                for (Map.Entry<String, Object> entry : map.entrySet()) {
-                    Object key = keySerializer != null ? keySerializer.deserialize(entry.getKey()) : String.valueOf(entry.getKey()),
-                            value = valueSerializer != null ? valueSerializer.deserialize(entry.getValue().toString()) : String.valueOf(entry.getValue());
-
-                    result.put(key, value);
-                }
+                convertEntries(map, result,
+                        key -> keySerializer != null ? keySerializer.deserialize(String.valueOf(key)) : intern(String.valueOf(key)),
+                        value -> valueSerializer != null ? fromFileValue(valueSerializer, value) : intern(String.valueOf(value)));
 
                 return result;
             }
-        } else if (fieldValue instanceof Collection && field.getGenericType() instanceof ParameterizedType) {
-            Type[] types = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
-
+        } else if (fieldValue instanceof Collection && types != null) {
             if (types.length == 1) {
-                if (isDefaultClass(types[0].getTypeName())) {
-                    return fieldValue;
-                }
-
-                ValueConverter valueSerializer = registry.getConverter(types[0]);
+                ValueConverter valueSerializer = converters[0];
 
-                if (valueSerializer == null) {
+                if (isMissing(valueSerializer, types[0]) || !(fileValue instanceof Collection)) {
                     return fieldValue;
                 }
 
-                Collection result = (Collection) fieldValue;
-                ArrayList<String> list = (ArrayList<String>) fileValue;
+                Collection<?> list = (Collection<?>) fileValue;
+                // a new collection, so loading into an object that was loaded before replaces its elements instead of adding to them
+                Collection<Object> result = newCollection(fieldValue.getClass(), field.getType(), list.size());
 
-                for (String string : list) {
-                    result.add(valueSerializer.deserialize(string));
-                }
+                convertElements(list, result, valueSerializer != null
+                        ? element -> fromFileValue(valueSerializer, element)
+                        : element -> toDefaultValue(types[0], element));
 
                 return result;
             }
+        } else if (isPrimitiveArray(field.getType())) {
+            Object array = toPrimitiveArray(field.getType().getComponentType(), fileValue);
+            return array != null ? array : fieldValue;
+        } else if (!field.getType().isPrimitive() && !isDefaultClass(field.getType().getName()) && registry.hasConverter(fieldValue != null ? fieldValue : field.getType())) {
+            // checked before the file value type, since converted values are themselves Strings, Numbers or Maps
+            return fromFileValue(registry.getConverter(fieldValue != null ? fieldValue : field.getType()), fileValue);
         } else if (isDefaultClass(fileValue.getClass().getName())) {
-            if (field.getType().isPrimitive() && fileValue instanceof Number) {
+            // formats read numbers back as Integer, Long or Double whatever was written, so they are narrowed or widened to the field type
+            if ((field.getType().isPrimitive() || Number.class.isAssignableFrom(field.getType())) && fileValue instanceof Number) {
                 Number numValue = (Number) fileValue;
 
                 try {
@@ -154,19 +209,337 @@ public class FieldConverter {
                 }
             } else if (field.getType() == boolean.class || field.getType() == Boolean.class) {
                  return Boolean.parseBoolean(String.valueOf(fileValue));
-             }
+             } else if (fileValue instanceof String) {
+                return intern((String) fileValue);
+            }
 
             return fileValue;
         } else {
             ValueConverter valueSerializer = registry.getConverter(fieldValue);
 
             if (valueSerializer != null) {
-                return valueSerializer.deserialize(String.valueOf(fileValue));
+                return fromFileValue(valueSerializer, fileValue);
             }
+
+            metricsListener.onConverterMiss(field.getGenericType());
         }
         return fieldValue;
     }
 
+    /**
+     * Converts every entry of a map into the target, in iteration order.
+     * Maps of at least {@link #parallelThreshold} entries are converted on the common fork-join pool, so the converters must be thread-safe.
+     */
+    private void convertEntries(Map<?, ?> source, Map<Object, Object> target, Function<Object, Object> keys, Function<Object, Object> values) {
+        if (source.size() < parallelThreshold) {
+            for (Map.Entry<?, ?> entry : source.entrySet()) {
+                target.put(keys.apply(entry.getKey()), values.apply(entry.getValue()));
+            }
+
+            return;
+        }
+
+        Map.Entry<?, ?>[] entries = source.entrySet().toArray(new Map.Entry<?, ?>[0]);
+        Object[] convertedKeys = new Object[entries.length], convertedValues = new Object[entries.length];
+
+        IntStream.range(0, entries.length).parallel().forEach(i -> {
+            convertedKeys[i] = keys.apply(entries[i].getKey());
+            convertedValues[i] = values.apply(entries[i].getValue());
+        });
+
+        for (int i = 0; i < entries.length; i++) {
+            target.put(convertedKeys[i], convertedValues[i]);
+        }
+    }
+
+    /**
+     * Converts every element of a collection into the target, in iteration order.
+     * Collections of at least {@link #parallelThreshold} elements are converted on the common fork-join pool, so the converter must be thread-safe.
+     */
+    private void convertElements(Collection<?> source, Collection<Object> target, Function<Object, Object> conversion) {
+        if (source.size() < parallelThreshold) {
+            for (Object element : source) {
+                target.add(conversion.apply(element));
+            }
+
+            return;
+        }
+
+        Object[] elements = source.toArray();
+        IntStream.range(0, elements.length).parallel().forEach(i -> elements[i] = conversion.apply(elements[i]));
+
+        target.addAll(Arrays.asList(elements));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> newMap(Class<?> type, Class<?> declaredType, int size) {
+        if (type == LinkedHashMap.class) {
+            return new LinkedHashMap<>(capacity(size));
+        } else if (type == HashMap.class) {
+            return new HashMap<>(capacity(size));
+        }
+
+        Map<Object, Object> map = (Map<Object, Object>) newInstance(type, declaredType);
+
+        if (map != null) {
+            return map;
+        }
+
+        return SortedMap.class.isAssignableFrom(declaredType) ? new TreeMap<>() : new LinkedHashMap<>(capacity(size));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Object> newCollection(Class<?> type, Class<?> declaredType, int size) {
+        if (type == ArrayList.class) {
+            return new ArrayList<>(size);
+        } else if (type == LinkedHashSet.class) {
+            return new LinkedHashSet<>(capacity(size));
+        } else if (type == HashSet.class) {
+            return new HashSet<>(capacity(size));
+        }
+
+        Collection<Object> collection = (Collection<Object>) newInstance(type, declaredType);
+
+        if (collection != null) {
+            return collection;
+        }
+
+        if (SortedSet.class.isAssignableFrom(declaredType)) {
+            return new TreeSet<>();
+        } else if (Set.class.isAssignableFrom(declaredType)) {
+            return new LinkedHashSet<>(capacity(size));
+        } else if (Queue.class.isAssignableFrom(declaredType)) {
+            return new ArrayDeque<>(size);
+        }
+
+        return new ArrayList<>(size);
+    }
+
+    /**
+     * Creates an empty instance of the type of a default value, or of the declared field type if that one has no usable constructor.
+     * Defaults such as {@code Arrays.asList(...)} or {@code Collections.emptyList()} cannot be instantiated, for those null is returned
+     * so the caller picks a JDK implementation of the declared interface.
+     */
+    private Object newInstance(Class<?> type, Class<?> declaredType) {
+        for (Class<?> candidate : new Class<?>[] {type, declaredType}) {
+            if (candidate.isInterface() || Modifier.isAbstract(candidate.getModifiers())) {
+                continue;
+            }
+
+            try {
+                return candidate.newInstance();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // no accessible no-argument constructor, try the next candidate
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Converts an element of a collection whose element type is a java.lang class, narrowing numbers to the element type.
+     */
+    private Object toDefaultValue(Type type, Object element) {
+        if (element instanceof String) {
+            return intern((String) element);
+        } else if (element instanceof Number) {
+            Number number = (Number) element;
+
+            if (type == Integer.class) {
+                return number.intValue();
+            } else if (type == Long.class) {
+                return number.longValue();
+            } else if (type == Double.class) {
+                return number.doubleValue();
+            } else if (type == Float.class) {
+                return number.floatValue();
+            } else if (type == Short.class) {
+                return number.shortValue();
+            } else if (type == Byte.class) {
+                return number.byteValue();
+            } else if (type == String.class) {
+                return String.valueOf(number);
+            }
+        }
+
+        return element;
+    }
+
+    private int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    private boolean isMissing(ValueConverter converter, Type type) {
+        if (converter == null && !isDefaultClass(type.getTypeName())) {
+            metricsListener.onConverterMiss(type);
+            return true;
+        }
+
+        return false;
+    }
+
+    private Object toFileValue(ValueConverter converter, Object value) {
+        return converter instanceof TreeConverter ? ((TreeConverter) converter).toTree(value) : converter.serialize(value);
+    }
+
+    private Object fromFileValue(ValueConverter converter, Object fileValue) {
+        if (converter instanceof TreeConverter) {
+            StringPool pool = stringPool;
+            return ((TreeConverter) converter).fromTree(pool != null ? pool.internTree(fileValue) : fileValue);
+        }
+
+        return converter.deserialize(String.valueOf(fileValue));
+    }
+
+    private String intern(String value) {
+        StringPool pool = stringPool;
+        return pool != null ? pool.intern(value) : value;
+    }
+
+    private boolean isPrimitiveArray(Class<?> type) {
+        return type.isArray() && type.getComponentType().isPrimitive();
+    }
+
+    /**
+     * Converts a file value into a primitive array of the given component type.
+     * Accepts a list of numbers as produced by text formats, or a long[]/double[] as produced by {@link kr.codingtree.fieldmate.file.BinaryStorage}.
+     * Numbers are narrowed the same way as scalar primitive fields.
+     */
+    private Object toPrimitiveArray(Class<?> type, Object fileValue) {
+        if (type == char.class) {
+            return fileValue instanceof String ? ((String) fileValue).toCharArray() : null;
+        } else if (fileValue.getClass().getComponentType() == type) {
+            return fileValue;
+        } else if (type == boolean.class) {
+            if (!(fileValue instanceof List)) {
+                return null;
+            }
+
+            List<?> list = (List<?>) fileValue;
+            boolean[] array = new boolean[list.size()];
+
+            for (int i = 0; i < array.length; i++) {
+                array[i] = Boolean.parseBoolean(String.valueOf(list.get(i)));
+            }
+
+            return array;
+        } else if (type == double.class || type == float.class) {
+            double[] values = toDoubles(fileValue);
+
+            if (values == null || type == double.class) {
+                return values;
+            }
+
+            float[] array = new float[values.length];
+
+            for (int i = 0; i < array.length; i++) {
+                array[i] = (float) values[i];
+            }
+
+            return array;
+        }
+
+        long[] values = toLongs(fileValue);
+
+        if (values == null || type == long.class) {
+            return values;
+        } else if (type == int.class) {
+            int[] array = new int[values.length];
+
+            for (int i = 0; i < array.length; i++) {
+                array[i] = (int) values[i];
+            }
+
+            return array;
+        } else if (type == short.class) {
+            short[] array = new short[values.length];
+
+            for (int i = 0; i < array.length; i++) {
+                array[i] = (short) values[i];
+            }
+
+            return array;
+        } else if (type == byte.class) {
+            byte[] array = new byte[values.length];
+
+            for (int i = 0; i < array.length; i++) {
+                array[i] = (byte) values[i];
+            }
+
+            return array;
+        }
+
+        return null;
+    }
+
+    private long[] toLongs(Object fileValue) {
+        if (fileValue instanceof long[]) {
+            return (long[]) fileValue;
+        } else if (fileValue instanceof double[]) {
+            double[] source = (double[]) fileValue;
+            long[] array = new long[source.length];
+
+            for (int i = 0; i < array.length; i++) {
+                array[i] = (long) source[i];
+            }
+
+            return array;
+        } else if (fileValue instanceof List) {
+            List<?> list = (List<?>) fileValue;
+            long[] array = new long[list.size()];
+
+            for (int i = 0; i < array.length; i++) {
+                Object element = list.get(i);
+
+                if (!(element instanceof Number)) {
+                    return null;
+                }
+
+                array[i] = ((Number) element).longValue();
+            }
+
+            return array;
+        }
+
+        return null;
+    }
+
+    private double[] toDoubles(Object fileValue) {
+        if (fileValue instanceof double[]) {
+            return (double[]) fileValue;
+        } else if (fileValue instanceof long[]) {
+            long[] source = (long[]) fileValue;
+            double[] array = new double[source.length];
+
+            for (int i = 0; i < array.length; i++) {
+                array[i] = source[i];
+            }
+
+            return array;
+        } else if (fileValue instanceof List) {
+            List<?> list = (List<?>) fileValue;
+            double[] array = new double[list.size()];
+
+            for (int i = 0; i < array.length; i++) {
+                Object element = list.get(i);
+
+                if (!(element instanceof Number)) {
+                    return null;
+                }
+
+                array[i] = ((Number) element).doubleValue();
+            }
+
+            return array;
+        }
+
+        return null;
+    }
+
+    private Type[] getTypeArguments(Field field) {
+        return field.getGenericType() instanceof ParameterizedType ? ((ParameterizedType) field.getGenericType()).getActualTypeArguments() : null;
+    }
+
     public boolean isDefaultClass(String name) {
         return name != null && name.startsWith("java.lang");
     }
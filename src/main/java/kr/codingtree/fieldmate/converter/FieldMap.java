@@ -0,0 +1,74 @@
+package kr.codingtree.fieldmate.converter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Insertion-ordered, array-backed map of serialized field values handed to a {@link kr.codingtree.fieldmate.file.FileStorage}.
+ * Keys are unique by construction, so it skips the hashing and entry allocation of a LinkedHashMap.
+ */
+class FieldMap extends AbstractMap<String, Object> {
+
+    private String[] names;
+    private Object[] values;
+    private int size = 0;
+
+    FieldMap(int capacity) {
+        this.names = new String[capacity];
+        this.values = new Object[capacity];
+    }
+
+    void add(String name, Object value) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, Math.max(4, size * 2));
+            values = Arrays.copyOf(values, names.length);
+        }
+
+        names[size] = name;
+        values[size] = value;
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<Entry<String, Object>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < size;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (index >= size) {
+                            throw new NoSuchElementException();
+                        }
+
+                        Entry<String, Object> entry = new SimpleImmutableEntry<>(names[index], values[index]);
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,22 @@
+package kr.codingtree.fieldmate.converter;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+
+/**
+ * Outcome of a bulk load, with the loaded objects and the failure of every file that could not be loaded,
+ * both in the order the files were given.
+ */
+@Getter
+public class LoadResult<T> {
+
+    private final LinkedHashMap<File, T> loaded = new LinkedHashMap<>();
+    private final LinkedHashMap<File, Throwable> failures = new LinkedHashMap<>();
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+}
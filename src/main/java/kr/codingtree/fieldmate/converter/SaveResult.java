@@ -0,0 +1,22 @@
+package kr.codingtree.fieldmate.converter;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+
+/**
+ * Outcome of a batch save, with whether every saved file was written or skipped as unchanged and the failure of every file that could not be saved,
+ * both in the order the files were given.
+ */
+@Getter
+public class SaveResult {
+
+    private final LinkedHashMap<File, Boolean> saved = new LinkedHashMap<>();
+    private final LinkedHashMap<File, Throwable> failures = new LinkedHashMap<>();
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+}
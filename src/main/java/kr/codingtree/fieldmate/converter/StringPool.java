@@ -0,0 +1,136 @@
+package kr.codingtree.fieldmate.converter;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deduplicates the strings of loaded values, so objects loaded from many files share one instance per distinct key or short value.
+ * The pool has a fixed number of slots and holds its strings through weak references, so it never grows and never keeps a string alive on its own.
+ * Two strings hashing to the same slot replace each other, which costs a missed deduplication but no correctness.
+ * Safe for concurrent use.
+ */
+public class StringPool {
+
+    private final AtomicReferenceArray<WeakReference<String>> slots;
+    private final int shift;
+    private final int maxLength;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    public StringPool() {
+        this(1 << 16, 64);
+    }
+
+    /**
+     * @param capacity  The number of slots, rounded up to a power of two
+     * @param maxLength The length above which strings are returned as they are
+     */
+    public StringPool(int capacity, int maxLength) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+
+        this.slots = new AtomicReferenceArray<>(size);
+        this.shift = Integer.numberOfLeadingZeros(size) + 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return The pooled instance equal to the value, or the value itself if none is pooled yet or it is too long
+     */
+    public String intern(String value) {
+        if (value == null || value.length() > maxLength) {
+            return value;
+        }
+
+        int index = (value.hashCode() * 0x9e3779b9) >>> shift;
+        WeakReference<String> reference = slots.get(index);
+        String pooled = reference != null ? reference.get() : null;
+
+        if (pooled != null && pooled.equals(value)) {
+            if (pooled != value) {
+                hits.increment();
+                savedBytes.add(estimateSize(value));
+            }
+
+            return pooled;
+        }
+
+        misses.increment();
+        slots.set(index, new WeakReference<>(value));
+
+        return value;
+    }
+
+    /**
+     * Replaces the strings in a parsed value, including Map keys, with pooled instances.
+     * Maps and Lists are updated in place, any other value is returned as it is.
+     *
+     * @return The value with its strings pooled
+     */
+    @SuppressWarnings("unchecked")
+    public Object internTree(Object value) {
+        if (value instanceof String) {
+            return intern((String) value);
+        } else if (value instanceof Map) {
+            Map<Object, Object> map = (Map<Object, Object>) value;
+            List<Map.Entry<Object, Object>> entries = new ArrayList<>(map.entrySet());
+
+            map.clear();
+
+            for (Map.Entry<Object, Object> entry : entries) {
+                map.put(internTree(entry.getKey()), internTree(entry.getValue()));
+            }
+        } else if (value instanceof List) {
+            ListIterator<Object> iterator = ((List<Object>) value).listIterator();
+
+            while (iterator.hasNext()) {
+                iterator.set(internTree(iterator.next()));
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * @return The number of strings that were replaced by a pooled instance
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of strings that were pooled because no equal instance was found
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return An estimate of the heap released by the replaced strings, counting a String object and its character array per hit
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    private static long estimateSize(String value) {
+        return 24 + ((16 + value.length() * 2L + 7) & ~7L);
+    }
+
+    @Override
+    public String toString() {
+        return "StringPool[hits=" + getHits() + ", misses=" + getMisses() + ", savedBytes=" + getSavedBytes() + "]";
+    }
+
+}
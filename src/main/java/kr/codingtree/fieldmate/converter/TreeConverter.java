@@ -0,0 +1,24 @@
+package kr.codingtree.fieldmate.converter;
+
+/**
+ * Converter that maps a value to and from the native tree values of the storage formats
+ * (String, Number, Boolean, List, Map and primitive arrays) instead of a String,
+ * so numeric or structured types are written as such and are not parsed back from text.
+ * Map keys are always written as Strings, so {@link #fromTree(Object)} receives a String when the type is used as a key.
+ */
+public abstract class TreeConverter<V> extends ValueConverter<V> {
+
+    public abstract Object toTree(V value);
+    public abstract V fromTree(Object value);
+
+    @Override
+    public String serialize(V value) {
+        return String.valueOf(toTree(value));
+    }
+
+    @Override
+    public V deserialize(String value) {
+        return fromTree(value);
+    }
+
+}
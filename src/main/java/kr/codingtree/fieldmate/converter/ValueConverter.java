@@ -4,11 +4,17 @@ import java.lang.reflect.ParameterizedType;
 
 public abstract class ValueConverter<V> {
 
+    private volatile Class<?> genericClass = null;
+
     public abstract String serialize(V value);
     public abstract V deserialize(String value);
 
     public final Class<?> getGenericClass() {
-        return (Class<?>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
+        if (genericClass == null) {
+            genericClass = (Class<?>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
+        }
+
+        return genericClass;
     }
 
     public final boolean canSerialize(Object object) {
@@ -0,0 +1,510 @@
+package kr.codingtree.fieldmate.file;
+
+import lombok.Cleanup;
+import lombok.SneakyThrows;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Compact binary format for data that does not need to be edited by hand.
+ * A file starts with a header and a dictionary of every map key in the document, followed by the root map
+ * where each value is a type tag and a length-prefixed or varint-encoded payload and each key is an index into the dictionary.
+ * Large files are read through a memory-mapped buffer.
+ */
+public class BinaryStorage extends FileStorage {
+
+    private static final byte[] MAGIC = {'F', 'M', 'B', 1};
+    private static final long MAPPED_THRESHOLD = 1024 * 1024;
+
+    private static final byte NULL = 0, FALSE = 1, TRUE = 2, INTEGER = 3, DOUBLE = 4, STRING = 5, LIST = 6, MAP = 7, INTEGER_ARRAY = 8, DOUBLE_ARRAY = 9;
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public LinkedHashMap<String, Object> load(File file) {
+        ByteBuffer buffer = readBuffer(file);
+        return buffer != null ? decode(buffer) : null;
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public void load(File file, FieldVisitor visitor) {
+        ByteBuffer buffer = readBuffer(file);
+
+        if (buffer != null) {
+            decode(buffer, visitor);
+        }
+    }
+
+    private ByteBuffer readBuffer(File file) throws IOException {
+        if (!file.exists()) {
+            createFile(file);
+        }
+
+        @Cleanup FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        long size = channel.size();
+
+        if (size == 0) {
+            return null;
+        } else if (size >= MAPPED_THRESHOLD) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+
+        while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public void save(File file, Map<String, Object> data) {
+        if (!file.exists()) {
+            createFile(file);
+        }
+
+        @Cleanup FileOutputStream fos = new FileOutputStream(file);
+        @Cleanup BufferedOutputStream bos = new BufferedOutputStream(fos);
+        @Cleanup DataOutputStream dos = new DataOutputStream(bos);
+
+        encode(dos, data);
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> read(InputStream in) throws IOException {
+        byte[] data = readFully(in);
+        return data.length == 0 ? null : decode(ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public void read(InputStream in, FieldVisitor visitor) throws IOException {
+        byte[] data = readFully(in);
+
+        if (data.length != 0) {
+            decode(ByteBuffer.wrap(data), visitor);
+        }
+    }
+
+    @Override
+    public void write(OutputStream out, Map<String, Object> data) throws IOException {
+        encode(new DataOutputStream(out), data);
+    }
+
+    private byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+
+        while ((length = in.read(buffer)) != -1) {
+            bos.write(buffer, 0, length);
+        }
+
+        return bos.toByteArray();
+    }
+
+    @Override
+    public String mapToString(Map<String, Object> data) {
+        return Base64.getEncoder().encodeToString(toBytes(data));
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> stringToMap(String data) {
+        return fromBytes(Base64.getDecoder().decode(data.trim()));
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public byte[] toBytes(Map<String, Object> data) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        encode(new DataOutputStream(bos), data);
+
+        return bos.toByteArray();
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public LinkedHashMap<String, Object> fromBytes(byte[] data) {
+        return data.length == 0 ? null : decode(ByteBuffer.wrap(data));
+    }
+
+    public void encode(DataOutputStream out, Map<String, Object> data) throws IOException {
+        LinkedHashMap<String, Integer> dictionary = new LinkedHashMap<>();
+        collectKeys(data, dictionary);
+
+        out.write(MAGIC);
+        writeVarInt(out, dictionary.size());
+
+        for (String key : dictionary.keySet()) {
+            writeString(out, key);
+        }
+
+        writeValue(out, data, dictionary);
+        out.flush();
+    }
+
+    public LinkedHashMap<String, Object> decode(ByteBuffer buffer) throws IOException {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        return decode(buffer, map::put) ? map : null;
+    }
+
+    /**
+     * Decodes the root map entry by entry, handing each to the visitor as soon as its value is read.
+     *
+     * @return false if the root value is null
+     */
+    public boolean decode(ByteBuffer buffer, FieldVisitor visitor) throws IOException {
+        try {
+            for (byte b : MAGIC) {
+                if (buffer.get() != b) {
+                    throw new IOException("Not a FieldMate binary file");
+                }
+            }
+
+            String[] dictionary = new String[readLength(buffer)];
+
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(buffer);
+            }
+
+            byte tag = buffer.get();
+
+            if (tag == NULL) {
+                return false;
+            } else if (tag != MAP) {
+                throw new IOException("Root value is not a map");
+            }
+
+            int size = readLength(buffer);
+
+            for (int i = 0; i < size; i++) {
+                String key = dictionary[readVarInt(buffer)];
+
+                if (visitor.accepts(key)) {
+                    visitor.visit(key, readValue(buffer, dictionary));
+                } else {
+                    skipValue(buffer);
+                }
+            }
+
+            return true;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt binary data", e);
+        }
+    }
+
+    private void collectKeys(Object value, LinkedHashMap<String, Integer> dictionary) {
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                String key = String.valueOf(entry.getKey());
+
+                if (!dictionary.containsKey(key)) {
+                    dictionary.put(key, dictionary.size());
+                }
+
+                collectKeys(entry.getValue(), dictionary);
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                collectKeys(element, dictionary);
+            }
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Object value, Map<String, Integer> dictionary) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            long number = ((Number) value).longValue();
+
+            out.writeByte(INTEGER);
+            writeZigZag(out, number);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+
+            out.writeByte(MAP);
+            writeVarInt(out, map.size());
+
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeVarInt(out, dictionary.get(String.valueOf(entry.getKey())));
+                writeValue(out, entry.getValue(), dictionary);
+            }
+        } else if (value.getClass().isArray()) {
+            writeArray(out, value, dictionary);
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+
+            out.writeByte(LIST);
+            writeVarInt(out, collection.size());
+
+            for (Object element : collection) {
+                writeValue(out, element, dictionary);
+            }
+        } else {
+            out.writeByte(STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private void writeArray(DataOutputStream out, Object array, Map<String, Integer> dictionary) throws IOException {
+        if (array instanceof double[]) {
+            double[] values = (double[]) array;
+            writeArrayHeader(out, DOUBLE_ARRAY, values.length);
+
+            for (double value : values) {
+                out.writeDouble(value);
+            }
+        } else if (array instanceof float[]) {
+            float[] values = (float[]) array;
+            writeArrayHeader(out, DOUBLE_ARRAY, values.length);
+
+            for (float value : values) {
+                out.writeDouble(value);
+            }
+        } else if (array instanceof int[]) {
+            int[] values = (int[]) array;
+            writeArrayHeader(out, INTEGER_ARRAY, values.length);
+
+            for (int value : values) {
+                writeZigZag(out, value);
+            }
+        } else if (array instanceof long[]) {
+            long[] values = (long[]) array;
+            writeArrayHeader(out, INTEGER_ARRAY, values.length);
+
+            for (long value : values) {
+                writeZigZag(out, value);
+            }
+        } else if (array instanceof short[]) {
+            short[] values = (short[]) array;
+            writeArrayHeader(out, INTEGER_ARRAY, values.length);
+
+            for (short value : values) {
+                writeZigZag(out, value);
+            }
+        } else if (array instanceof byte[]) {
+            byte[] values = (byte[]) array;
+            writeArrayHeader(out, INTEGER_ARRAY, values.length);
+
+            for (byte value : values) {
+                writeZigZag(out, value);
+            }
+        } else if (array instanceof boolean[]) {
+            boolean[] values = (boolean[]) array;
+            writeArrayHeader(out, LIST, values.length);
+
+            for (boolean value : values) {
+                out.writeByte(value ? TRUE : FALSE);
+            }
+        } else if (array instanceof Object[]) {
+            writeValue(out, Arrays.asList((Object[]) array), dictionary);
+        } else {
+            writeValue(out, new String((char[]) array), dictionary);
+        }
+    }
+
+    private void writeArrayHeader(DataOutputStream out, byte tag, int length) throws IOException {
+        out.writeByte(tag);
+        writeVarInt(out, length);
+    }
+
+    private void writeZigZag(DataOutputStream out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private Object readValue(ByteBuffer buffer, String[] dictionary) throws IOException {
+        byte tag = buffer.get();
+
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return false;
+            case TRUE:
+                return true;
+            case INTEGER:
+                long encoded = readVarLong(buffer);
+                long number = (encoded >>> 1) ^ -(encoded & 1);
+
+                if (number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+                    return (int) number;
+                }
+
+                return number;
+            case DOUBLE:
+                return buffer.getDouble();
+            case STRING:
+                return readString(buffer);
+            case LIST:
+                int length = readLength(buffer);
+                ArrayList<Object> list = new ArrayList<>(length);
+
+                for (int i = 0; i < length; i++) {
+                    list.add(readValue(buffer, dictionary));
+                }
+
+                return list;
+            case INTEGER_ARRAY:
+                long[] longs = new long[readLength(buffer)];
+
+                for (int i = 0; i < longs.length; i++) {
+                    long value = readVarLong(buffer);
+                    longs[i] = (value >>> 1) ^ -(value & 1);
+                }
+
+                return longs;
+            case DOUBLE_ARRAY:
+                int count = readVarInt(buffer);
+
+                if (count < 0 || count > buffer.remaining() / 8) {
+                    throw new BufferUnderflowException();
+                }
+
+                double[] doubles = new double[count];
+                buffer.asDoubleBuffer().get(doubles);
+                buffer.position(buffer.position() + count * 8);
+
+                return doubles;
+            case MAP:
+                int size = readLength(buffer);
+                LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+
+                for (int i = 0; i < size; i++) {
+                    String key = dictionary[readVarInt(buffer)];
+                    map.put(key, readValue(buffer, dictionary));
+                }
+
+                return map;
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    private void skipValue(ByteBuffer buffer) throws IOException {
+        byte tag = buffer.get();
+
+        switch (tag) {
+            case NULL:
+            case FALSE:
+            case TRUE:
+                break;
+            case INTEGER:
+                readVarLong(buffer);
+                break;
+            case DOUBLE:
+                buffer.getDouble();
+                break;
+            case STRING:
+                int length = readLength(buffer);
+                buffer.position(buffer.position() + length);
+                break;
+            case LIST:
+                for (int i = readLength(buffer); i > 0; i--) {
+                    skipValue(buffer);
+                }
+
+                break;
+            case INTEGER_ARRAY:
+                for (int i = readLength(buffer); i > 0; i--) {
+                    readVarLong(buffer);
+                }
+
+                break;
+            case DOUBLE_ARRAY:
+                int count = readVarInt(buffer);
+
+                if (count < 0 || count > buffer.remaining() / 8) {
+                    throw new BufferUnderflowException();
+                }
+
+                buffer.position(buffer.position() + count * 8);
+                break;
+            case MAP:
+                for (int i = readLength(buffer); i > 0; i--) {
+                    readVarInt(buffer);
+                    skipValue(buffer);
+                }
+
+                break;
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(ByteBuffer buffer) {
+        int length = readLength(buffer);
+
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.writeByte((int) value);
+    }
+
+    private int readVarInt(ByteBuffer buffer) {
+        return (int) readVarLong(buffer);
+    }
+
+    private int readLength(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+
+        // every element takes at least one byte, so a larger count can only come from corrupt data
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        return length;
+    }
+
+    private long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 64);
+
+        return value;
+    }
+
+}
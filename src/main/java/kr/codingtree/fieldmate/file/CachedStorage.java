@@ -0,0 +1,248 @@
+package kr.codingtree.fieldmate.file;
+
+import kr.codingtree.fieldmate.converter.ChangeTracker;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Wraps a storage with a slow parser, such as {@link YamlStorage}, and keeps the parsed document of every loaded file
+ * in a binary sidecar file in a separate cache directory.
+ * A sidecar is used only while the path, size, modification time and CRC-32 of the file still match the ones it was created from,
+ * otherwise the file is parsed again and the sidecar replaced.
+ * Saving through this storage deletes the sidecar, so it is rebuilt from the saved text on the next load.
+ * Documents holding values the binary format cannot reproduce exactly, such as non-String keys or timestamps, are not cached.
+ */
+public class CachedStorage extends FileStorage {
+
+    private static final byte[] MAGIC = {'F', 'M', 'C', 1};
+
+    @Getter
+    private final FileStorage storage;
+    @Getter
+    private final File cacheDirectory;
+
+    private final BinaryStorage binary = new BinaryStorage();
+
+    public CachedStorage(FileStorage storage, File cacheDirectory) {
+        this.storage = storage;
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> load(File file) {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        return load(file, map::put, map) ? map : null;
+    }
+
+    @Override
+    public void load(File file, FieldVisitor visitor) {
+        load(file, visitor, null);
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public void save(File file, Map<String, Object> data) {
+        storage.save(file, data);
+        Files.deleteIfExists(getCacheFile(file).toPath());
+    }
+
+    /**
+     * @param target The map to copy a parsed document into as it is, or null to hand only the accepted entries to the visitor
+     */
+    @SneakyThrows(IOException.class)
+    private boolean load(File file, FieldVisitor visitor, LinkedHashMap<String, Object> target) {
+        if (!file.exists()) {
+            createFile(file);
+        }
+
+        byte[] content = Files.readAllBytes(file.toPath());
+        long modified = file.lastModified();
+
+        CRC32 crc = new CRC32();
+        crc.update(content);
+
+        String path = file.getAbsolutePath();
+        File cacheFile = getCacheFile(file);
+        ByteBuffer cached = readCache(cacheFile, path, content.length, modified, crc.getValue());
+
+        if (cached != null) {
+            try {
+                return binary.decode(cached, visitor);
+            } catch (IOException e) {
+                // damaged sidecar, parse the file instead
+            }
+        }
+
+        LinkedHashMap<String, Object> map = storage.read(new ByteArrayInputStream(content));
+
+        if (map == null) {
+            return false;
+        }
+
+        if (isCacheable(map)) {
+            writeCache(cacheFile, path, content.length, modified, crc.getValue(), map);
+        }
+
+        if (target != null) {
+            target.putAll(map);
+        } else {
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                if (visitor.accepts(String.valueOf(entry.getKey()))) {
+                    visitor.visit(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The encoded document positioned after the header, or null if the sidecar is missing or stale
+     */
+    private ByteBuffer readCache(File cacheFile, String path, long size, long modified, long hash) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cacheFile.toPath()));
+
+            for (byte b : MAGIC) {
+                if (buffer.get() != b) {
+                    return null;
+                }
+            }
+
+            byte[] cachedPath = new byte[buffer.getInt()];
+            buffer.get(cachedPath);
+
+            if (!path.equals(new String(cachedPath, StandardCharsets.UTF_8)) || buffer.getLong() != size || buffer.getLong() != modified || buffer.getLong() != hash) {
+                return null;
+            }
+
+            return buffer.slice();
+        } catch (IOException | BufferUnderflowException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    private void writeCache(File cacheFile, String path, long size, long modified, long hash, Map<String, Object> data) {
+        try {
+            cacheDirectory.mkdirs();
+            File temp = File.createTempFile(cacheFile.getName(), ".tmp", cacheDirectory);
+
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                    byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+
+                    out.write(MAGIC);
+                    out.writeInt(pathBytes.length);
+                    out.write(pathBytes);
+                    out.writeLong(size);
+                    out.writeLong(modified);
+                    out.writeLong(hash);
+                    binary.encode(out, data);
+                }
+
+                Files.move(temp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp.toPath());
+            }
+        } catch (IOException e) {
+            // the cache is only an optimization, the next load parses the file again
+        }
+    }
+
+    private File getCacheFile(File file) {
+        return new File(cacheDirectory, Long.toHexString(ChangeTracker.fingerprint(file.getAbsolutePath())) + ".fmcache");
+    }
+
+    /**
+     * @return Whether the binary format decodes the value back to an equal value of the same types
+     */
+    private boolean isCacheable(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Long || value instanceof Double) {
+            return true;
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!(entry.getKey() instanceof String) || !isCacheable(entry.getValue())) {
+                    return false;
+                }
+            }
+
+            return true;
+        } else if (value instanceof Collection && !(value instanceof java.util.Set)) {
+            for (Object element : (Collection<?>) value) {
+                if (!isCacheable(element)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> read(Reader reader) throws IOException {
+        return storage.read(reader);
+    }
+
+    @Override
+    public void read(Reader reader, FieldVisitor visitor) throws IOException {
+        storage.read(reader, visitor);
+    }
+
+    @Override
+    public void write(Writer writer, Map<String, Object> data) throws IOException {
+        storage.write(writer, data);
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> read(InputStream in) throws IOException {
+        return storage.read(in);
+    }
+
+    @Override
+    public void read(InputStream in, FieldVisitor visitor) throws IOException {
+        storage.read(in, visitor);
+    }
+
+    @Override
+    public void write(OutputStream out, Map<String, Object> data) throws IOException {
+        storage.write(out, data);
+    }
+
+    @Override
+    public byte[] toBytes(Map<String, Object> data) {
+        return storage.toBytes(data);
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> fromBytes(byte[] data) {
+        return storage.fromBytes(data);
+    }
+
+    @Override
+    public String mapToString(Map<String, Object> data) {
+        return storage.mapToString(data);
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> stringToMap(String data) {
+        return storage.stringToMap(data);
+    }
+
+}
@@ -0,0 +1,135 @@
+package kr.codingtree.fieldmate.file;
+
+import lombok.Cleanup;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Wraps another storage and GZIP-compresses its files while they are being written.
+ * Files are decompressed while they are being parsed when they start with the GZIP header, and read as they are otherwise,
+ * so existing uncompressed files keep loading and are compressed on their next save.
+ * The string forms of {@link #mapToString(Map)} and {@link #stringToMap(String)} are those of the wrapped storage, uncompressed.
+ */
+public class CompressedStorage extends FileStorage {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Getter
+    private final FileStorage storage;
+
+    public CompressedStorage(FileStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public LinkedHashMap<String, Object> load(File file) {
+        if (!file.exists()) {
+            createFile(file);
+        }
+
+        @Cleanup FileInputStream in = new FileInputStream(file);
+        return read(in);
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public void load(File file, FieldVisitor visitor) {
+        if (!file.exists()) {
+            createFile(file);
+        }
+
+        @Cleanup FileInputStream in = new FileInputStream(file);
+        read(in, visitor);
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public void save(File file, Map<String, Object> data) {
+        if (!file.exists()) {
+            createFile(file);
+        }
+
+        @Cleanup FileOutputStream fos = new FileOutputStream(file);
+        write(fos, data);
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> read(InputStream in) throws IOException {
+        return storage.read(open(in));
+    }
+
+    @Override
+    public void read(InputStream in, FieldVisitor visitor) throws IOException {
+        storage.read(open(in), visitor);
+    }
+
+    @Override
+    public void write(OutputStream out, Map<String, Object> data) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+        storage.write(gzip, data);
+        gzip.finish();
+        gzip.flush();
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> read(Reader reader) throws IOException {
+        return storage.read(reader);
+    }
+
+    @Override
+    public void read(Reader reader, FieldVisitor visitor) throws IOException {
+        storage.read(reader, visitor);
+    }
+
+    @Override
+    public void write(Writer writer, Map<String, Object> data) throws IOException {
+        storage.write(writer, data);
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public byte[] toBytes(Map<String, Object> data) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        write(bos, data);
+
+        return bos.toByteArray();
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public LinkedHashMap<String, Object> fromBytes(byte[] data) {
+        return read(new ByteArrayInputStream(data));
+    }
+
+    @Override
+    public String mapToString(Map<String, Object> data) {
+        return storage.mapToString(data);
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> stringToMap(String data) {
+        return storage.stringToMap(data);
+    }
+
+    private InputStream open(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(2);
+
+        int first = buffered.read(), second = buffered.read();
+        buffered.reset();
+
+        if (first == (GZIPInputStream.GZIP_MAGIC & 0xFF) && second == (GZIPInputStream.GZIP_MAGIC >>> 8)) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        }
+
+        return buffered;
+    }
+
+}
@@ -0,0 +1,22 @@
+package kr.codingtree.fieldmate.file;
+
+/**
+ * Receives the top-level entries of a document one at a time while it is being parsed.
+ */
+@FunctionalInterface
+public interface FieldVisitor {
+
+    void visit(String name, Object value);
+
+    /**
+     * Called with the key of every top-level entry before its value is read.
+     * Entries that are not accepted are never visited, and streaming formats skip over their values without building them.
+     *
+     * @param name The key of the entry
+     * @return Whether the entry should be read and visited
+     */
+    default boolean accepts(String name) {
+        return true;
+    }
+
+}
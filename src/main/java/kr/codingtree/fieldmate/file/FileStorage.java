@@ -11,7 +11,7 @@ import java.util.Map;
 public abstract class FileStorage {
 
     @SneakyThrows(IOException.class)
-    private void createFile(File file) {
+    protected void createFile(File file) {
         if (file.getPath().contains("\\")) {
             new File(file.getPath().substring(0, file.getPath().lastIndexOf("\\"))).mkdirs();;
         } else if (file.getPath().contains("/")) {
@@ -31,14 +31,20 @@ public abstract class FileStorage {
         @Cleanup InputStreamReader isr = new InputStreamReader(fis, StandardCharsets.UTF_8);
         @Cleanup BufferedReader br = new BufferedReader(isr);
 
-        StringBuilder sb = new StringBuilder();
-        String line;
+        return read(br);
+    }
 
-        while ((line = br.readLine()) != null) {
-            sb.append(line).append("\n");
+    @SneakyThrows(IOException.class)
+    public void load(File file, FieldVisitor visitor) {
+        if (!file.exists()) {
+            createFile(file);
         }
 
-        return stringToMap(sb.toString());
+        @Cleanup FileInputStream fis = new FileInputStream(file);
+        @Cleanup InputStreamReader isr = new InputStreamReader(fis, StandardCharsets.UTF_8);
+        @Cleanup BufferedReader br = new BufferedReader(isr);
+
+        read(br, visitor);
     }
 
     @SneakyThrows(IOException.class)
@@ -51,7 +57,85 @@ public abstract class FileStorage {
         @Cleanup OutputStreamWriter osw = new OutputStreamWriter(fos, StandardCharsets.UTF_8);
         @Cleanup BufferedWriter bw = new BufferedWriter(osw);
 
-        bw.write(mapToString(data));
+        write(bw, data);
+    }
+
+    /**
+     * Parses a document directly from the reader.
+     * The default implementation buffers the whole document and delegates to {@link #stringToMap(String)},
+     * formats with a streaming parser should override it.
+     */
+    public LinkedHashMap<String, Object> read(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[8192];
+        int length;
+
+        while ((length = reader.read(buffer)) != -1) {
+            sb.append(buffer, 0, length);
+        }
+
+        return stringToMap(sb.toString());
+    }
+
+    /**
+     * Parses a document from the reader and hands every top-level entry to the visitor.
+     * The default implementation parses the whole document with {@link #read(Reader)} first,
+     * formats with a streaming parser should override it to visit entries as they are read.
+     */
+    public void read(Reader reader, FieldVisitor visitor) throws IOException {
+        LinkedHashMap<String, Object> map = read(reader);
+
+        if (map != null) {
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                if (visitor.accepts(entry.getKey())) {
+                    visitor.visit(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Renders a document directly to the writer.
+     * The default implementation renders the whole document with {@link #mapToString(Map)},
+     * formats with a streaming emitter should override it.
+     */
+    public void write(Writer writer, Map<String, Object> data) throws IOException {
+        writer.write(mapToString(data));
+    }
+
+    /**
+     * Parses a document from a byte stream, for reading it through another stream such as a decompressor.
+     * The default implementation decodes the stream as UTF-8 and delegates to {@link #read(Reader)}.
+     */
+    public LinkedHashMap<String, Object> read(InputStream in) throws IOException {
+        return read(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    public void read(InputStream in, FieldVisitor visitor) throws IOException {
+        read(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), visitor);
+    }
+
+    /**
+     * Renders a document to a byte stream, for writing it through another stream such as a compressor.
+     * The default implementation encodes the output of {@link #write(Writer, Map)} as UTF-8.
+     * The stream is flushed but not closed.
+     */
+    public void write(OutputStream out, Map<String, Object> data) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        write(writer, data);
+        writer.flush();
+    }
+
+    /**
+     * Renders a document to bytes, for storing it somewhere other than its own file.
+     * The default implementation encodes {@link #mapToString(Map)} as UTF-8.
+     */
+    public byte[] toBytes(Map<String, Object> data) {
+        return mapToString(data).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public LinkedHashMap<String, Object> fromBytes(byte[] data) {
+        return stringToMap(new String(data, StandardCharsets.UTF_8));
     }
 
     public abstract String mapToString(Map<String, Object> data);
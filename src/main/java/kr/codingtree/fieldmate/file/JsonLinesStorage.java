@@ -0,0 +1,499 @@
+package kr.codingtree.fieldmate.file;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import kr.codingtree.fieldmate.converter.ChangeTracker;
+import lombok.AllArgsConstructor;
+import lombok.Cleanup;
+import lombok.SneakyThrows;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores a document as JSON Lines, so List entries that only grow, such as histories, are saved by appending their new elements
+ * instead of rewriting the whole file.
+ * A line holding an object sets its entries, and a line holding an array appends its elements after the first to the List entry named by the first.
+ * Loading replays the lines in order, ignoring a last line left incomplete by a crash.
+ * <p>
+ * A save leaves the file holding exactly the saved entries, like any other storage. It appends to every List entry that still starts with
+ * the elements already in the file. If a List entry no longer starts with them, the file is compacted into a single line,
+ * as it is once the file has reached the line limit or when entries were removed.
+ * The file is read again before a save whenever it was not last read or written by this instance, so saving from another instance,
+ * or without loading first, compares the saved Lists with the file in the same way.
+ */
+public class JsonLinesStorage extends JsonStorage {
+
+    public static final int DEFAULT_MAX_LINES = 1000;
+
+    private final int maxLines;
+    private final Set<String> appendKeys;
+
+    private final ConcurrentHashMap<File, FileState> states = new ConcurrentHashMap<>();
+
+    public JsonLinesStorage() {
+        this(DEFAULT_MAX_LINES);
+    }
+
+    /**
+     * @param maxLines   The number of lines from which the next save compacts the file, or 0 to only compact when appending is not possible
+     * @param appendKeys The keys of the List entries to append to, or none to append to every List entry
+     */
+    public JsonLinesStorage(int maxLines, String... appendKeys) {
+        this.maxLines = maxLines;
+        this.appendKeys = appendKeys.length > 0 ? new HashSet<>(Arrays.asList(appendKeys)) : null;
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public LinkedHashMap<String, Object> load(File file) {
+        if (!file.exists()) {
+            createFile(file);
+        }
+
+        FileState state = getState(file);
+
+        synchronized (state) {
+            Document document = refresh(file, state);
+            return document.lines > 0 ? document.map : null;
+        }
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public void load(File file, FieldVisitor visitor) {
+        if (!file.exists()) {
+            createFile(file);
+        }
+
+        FileState state = getState(file);
+        Document document;
+
+        synchronized (state) {
+            document = refresh(file, state);
+        }
+
+        if (document.lines > 0) {
+            visit(document.map, visitor);
+        }
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public void save(File file, Map<String, Object> data) {
+        if (!file.exists()) {
+            createFile(file);
+        }
+
+        FileState state = getState(file);
+
+        synchronized (state) {
+            if (!state.isCurrent(file)) {
+                refresh(file, state);
+            }
+
+            if (!append(file, state, data)) {
+                write(file, state, data);
+            }
+        }
+    }
+
+    /**
+     * Rewrites a file as a single line holding its current entries.
+     */
+    @SneakyThrows(IOException.class)
+    public void compact(File file) {
+        if (!file.exists()) {
+            return;
+        }
+
+        FileState state = getState(file);
+
+        synchronized (state) {
+            write(file, state, refresh(file, state).map);
+        }
+    }
+
+    /**
+     * Reads a file and remembers its state.
+     */
+    private Document refresh(File file, FileState state) throws IOException {
+        @Cleanup BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+        Document document = readLines(reader);
+
+        state.update(file, document.lines, document.map);
+
+        if (!document.complete) {
+            // the next append would continue the incomplete line, so the next save compacts instead
+            state.valid = false;
+        }
+
+        return document;
+    }
+
+    private boolean append(File file, FileState state, Map<String, Object> data) throws IOException {
+        // an empty file is written as a single line
+        if (!state.isCurrent(file) || state.lines == 0 || (maxLines > 0 && state.lines >= maxLines)) {
+            return false;
+        }
+
+        LinkedHashMap<String, Object> entries = new LinkedHashMap<>();
+        LinkedHashMap<String, List<?>> lists = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            if (isAppendable(entry.getKey(), entry.getValue())) {
+                ListState listState = state.lists.get(entry.getKey());
+
+                if (state.keys.contains(entry.getKey()) || (listState != null && !listState.isContinuedBy((List<?>) entry.getValue()))) {
+                    return false;
+                }
+
+                lists.put(entry.getKey(), (List<?>) entry.getValue());
+            } else {
+                entries.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        // entries can only be replaced by a line, not removed
+        if (!lists.keySet().containsAll(state.lists.keySet())) {
+            return false;
+        }
+
+        if (!entries.keySet().containsAll(state.keys)) {
+            return false;
+        }
+
+        long entriesHash = ChangeTracker.fingerprint(normalize(entries));
+        HashMap<String, ListState> appended = new HashMap<>();
+        int lines = 0;
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+            if (entriesHash != state.entriesHash) {
+                writeLine(writer, entries);
+                lines++;
+            }
+
+            for (Map.Entry<String, List<?>> entry : lists.entrySet()) {
+                ListState listState = state.lists.get(entry.getKey());
+                List<?> list = entry.getValue();
+                int from = listState != null ? listState.size : 0;
+
+                // the hash of a prefix continues into the hash of the longer list
+                appended.put(entry.getKey(), new ListState(list.size(), hash(list, from, list.size(), listState != null ? listState.hash : ChangeTracker.EMPTY)));
+
+                if (from < list.size()) {
+                    writeAppend(writer, entry.getKey(), list.subList(from, list.size()));
+                    lines++;
+                }
+            }
+        }
+
+        state.lists.putAll(appended);
+
+        state.entriesHash = entriesHash;
+        state.lines += lines;
+        state.length = file.length();
+        state.lastModified = file.lastModified();
+
+        return true;
+    }
+
+    /**
+     * Rewrites a file as a single line.
+     */
+    private void write(File file, FileState state, Map<String, Object> data) throws IOException {
+        File temp = File.createTempFile("." + file.getName() + "-", ".tmp", file.getAbsoluteFile().getParentFile());
+
+        try {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8))) {
+                writeLine(writer, data);
+            }
+
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Throwable t) {
+            state.valid = false;
+            throw t;
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+
+        state.update(file, 1, data);
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> read(Reader reader) throws IOException {
+        Document document = readLines(new BufferedReader(reader));
+        return document.lines > 0 ? document.map : null;
+    }
+
+    @Override
+    public void read(Reader reader, FieldVisitor visitor) throws IOException {
+        LinkedHashMap<String, Object> map = read(reader);
+
+        if (map != null) {
+            visit(map, visitor);
+        }
+    }
+
+    @Override
+    public void write(Writer writer, Map<String, Object> data) throws IOException {
+        writeLine(writer, data);
+    }
+
+    private Document readLines(BufferedReader reader) throws IOException {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        Exception incomplete = null;
+        int lines = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            if (incomplete != null) {
+                // only the last line can be cut off by a crash
+                if (incomplete instanceof IOException) {
+                    throw (IOException) incomplete;
+                }
+
+                throw (RuntimeException) incomplete;
+            }
+
+            try {
+                readLine(line, map);
+                lines++;
+            } catch (IOException | RuntimeException e) {
+                incomplete = e;
+            }
+        }
+
+        return new Document(map, lines, incomplete == null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readLine(String line, LinkedHashMap<String, Object> map) throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(line));
+        reader.setStrictness(Strictness.LENIENT);
+
+        JsonToken token = reader.peek();
+
+        if (token == JsonToken.BEGIN_OBJECT) {
+            LinkedHashMap<String, Object> entries = new LinkedHashMap<>();
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                entries.put(reader.nextName(), readValue(reader));
+            }
+
+            reader.endObject();
+            checkEnd(reader);
+
+            map.putAll(entries);
+        } else if (token == JsonToken.BEGIN_ARRAY) {
+            ArrayList<Object> elements = new ArrayList<>();
+            reader.beginArray();
+            String key = reader.nextString();
+
+            while (reader.hasNext()) {
+                elements.add(readValue(reader));
+            }
+
+            reader.endArray();
+            checkEnd(reader);
+
+            Object existing = map.get(key);
+
+            if (existing instanceof List) {
+                ((List<Object>) existing).addAll(elements);
+            } else {
+                map.put(key, elements);
+            }
+        } else {
+            throw new JsonSyntaxException("Expected BEGIN_OBJECT or BEGIN_ARRAY but was " + token + " at path " + reader.getPath());
+        }
+    }
+
+    private void checkEnd(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonSyntaxException("Expected end of line but was " + reader.peek() + " at path " + reader.getPath());
+        }
+    }
+
+    private void writeLine(Writer writer, Map<String, Object> data) throws IOException {
+        JsonWriter jsonWriter = newWriter(writer);
+        writeValue(jsonWriter, data);
+        jsonWriter.flush();
+        writer.write('\n');
+    }
+
+    private void writeAppend(Writer writer, String key, List<?> elements) throws IOException {
+        JsonWriter jsonWriter = newWriter(writer);
+        jsonWriter.beginArray();
+        jsonWriter.value(key);
+
+        for (Object element : elements) {
+            writeValue(jsonWriter, element);
+        }
+
+        jsonWriter.endArray();
+        jsonWriter.flush();
+        writer.write('\n');
+    }
+
+    private JsonWriter newWriter(Writer writer) {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setHtmlSafe(false);
+        jsonWriter.setSerializeNulls(false);
+
+        return jsonWriter;
+    }
+
+    private void visit(LinkedHashMap<String, Object> map, FieldVisitor visitor) {
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (visitor.accepts(entry.getKey())) {
+                visitor.visit(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private boolean isAppendable(String key, Object value) {
+        return value instanceof List && (appendKeys == null || appendKeys.contains(key));
+    }
+
+    private FileState getState(File file) {
+        return states.computeIfAbsent(file.getAbsoluteFile(), path -> new FileState());
+    }
+
+    /**
+     * @return The fingerprint of the elements of a list in the given range, continuing the given fingerprint
+     */
+    private static long hash(List<?> list, int from, int to, long hash) {
+        for (int i = from; i < to; i++) {
+            hash = ChangeTracker.fingerprint(hash, normalize(list.get(i)));
+        }
+
+        return hash;
+    }
+
+    /**
+     * Converts a value to the way it reads back from a line, so numbers are compared as doubles and other scalars by their text.
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Map) {
+            LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(String.valueOf(entry.getKey()), normalize(entry.getValue()));
+            }
+
+            return map;
+        } else if (value instanceof Collection) {
+            ArrayList<Object> list = new ArrayList<>(((Collection<?>) value).size());
+
+            for (Object element : (Collection<?>) value) {
+                list.add(normalize(element));
+            }
+
+            return list;
+        } else if (value != null && value.getClass().isArray()) {
+            ArrayList<Object> list = new ArrayList<>(Array.getLength(value));
+
+            for (int i = 0; i < Array.getLength(value); i++) {
+                list.add(normalize(Array.get(value, i)));
+            }
+
+            return list;
+        } else if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (value == null || value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+
+        return value.toString();
+    }
+
+    /**
+     * What this storage last read from or wrote to a file, to tell whether the next save can append to it.
+     */
+    private class FileState {
+
+        private boolean valid;
+        private long length;
+        private long lastModified;
+        private int lines;
+
+        private Set<String> keys = new HashSet<>();
+        private long entriesHash;
+        private HashMap<String, ListState> lists = new HashMap<>();
+
+        private void update(File file, int lines, Map<String, Object> data) {
+            LinkedHashMap<String, Object> entries = new LinkedHashMap<>();
+            lists = new HashMap<>();
+
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                if (isAppendable(entry.getKey(), entry.getValue())) {
+                    List<?> list = (List<?>) entry.getValue();
+                    lists.put(entry.getKey(), new ListState(list.size(), hash(list, 0, list.size(), ChangeTracker.EMPTY)));
+                } else {
+                    entries.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            this.valid = true;
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+            this.lines = lines;
+            this.keys = new HashSet<>(entries.keySet());
+            this.entriesHash = ChangeTracker.fingerprint(normalize(entries));
+        }
+
+        /**
+         * @return Whether the file has not been touched since it was last read or written
+         */
+        private boolean isCurrent(File file) {
+            return valid && file.length() == length && file.lastModified() == lastModified;
+        }
+
+    }
+
+    /**
+     * A List entry of a file.
+     */
+    @AllArgsConstructor
+    private static class ListState {
+        private final int size;
+        private final long hash;
+
+        /**
+         * @return Whether the list starts with the elements of this entry
+         */
+        private boolean isContinuedBy(List<?> list) {
+            return list.size() >= size && hash(list, 0, size, ChangeTracker.EMPTY) == hash;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Document {
+        private final LinkedHashMap<String, Object> map;
+        private final int lines;
+        private final boolean complete;
+    }
+
+}
@@ -1,31 +1,206 @@
 package kr.codingtree.fieldmate.file;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import lombok.SneakyThrows;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class JsonStorage extends FileStorage {
 
-    private Gson gson = null;
-    private GsonBuilder gsonBuilder = null;
-
     @Override
+    @SneakyThrows(IOException.class)
     public String mapToString(Map<String, Object> data) {
-        if (gsonBuilder == null) {
-            gsonBuilder = new GsonBuilder();
-        }
+        StringWriter writer = new StringWriter();
+        write(writer, data);
 
-        return gsonBuilder.setPrettyPrinting().disableHtmlEscaping().create().toJson(data);
+        return writer.toString();
     }
 
     @Override
+    @SneakyThrows(IOException.class)
     public LinkedHashMap<String, Object> stringToMap(String data) {
-        if (gson == null) {
-            gson = new Gson();
+        return read(new StringReader(data));
+    }
+
+    @Override
+    public void write(Writer writer, Map<String, Object> data) throws IOException {
+        // same output as Gson with pretty printing and HTML escaping disabled, without going through its type adapters
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setIndent("  ");
+        jsonWriter.setHtmlSafe(false);
+        jsonWriter.setSerializeNulls(false);
+
+        writeValue(jsonWriter, data);
+        jsonWriter.flush();
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> read(Reader reader) throws IOException {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        return readDocument(reader, map::put) ? map : null;
+    }
+
+    @Override
+    public void read(Reader reader, FieldVisitor visitor) throws IOException {
+        readDocument(reader, visitor);
+    }
+
+    private boolean readDocument(Reader reader, FieldVisitor visitor) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.setStrictness(Strictness.LENIENT);
+
+        JsonToken token;
+
+        try {
+            token = jsonReader.peek();
+        } catch (EOFException e) {
+            return false;
+        }
+
+        if (token == JsonToken.NULL) {
+            return false;
+        } else if (token != JsonToken.BEGIN_OBJECT) {
+            throw new JsonSyntaxException("Expected BEGIN_OBJECT but was " + token + " at path " + jsonReader.getPath());
+        }
+
+        jsonReader.beginObject();
+
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+
+            if (visitor.accepts(name)) {
+                visitor.visit(name, readValue(jsonReader));
+            } else {
+                jsonReader.skipValue();
+            }
         }
-        return gson.fromJson(data, LinkedHashMap.class);
+
+        jsonReader.endObject();
+        return true;
+    }
+
+    protected Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+                reader.beginObject();
+
+                while (reader.hasNext()) {
+                    map.put(reader.nextName(), readValue(reader));
+                }
+
+                reader.endObject();
+                return map;
+            case BEGIN_ARRAY:
+                ArrayList<Object> list = new ArrayList<>();
+                reader.beginArray();
+
+                while (reader.hasNext()) {
+                    list.add(readValue(reader));
+                }
+
+                reader.endArray();
+                return list;
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return reader.nextDouble();
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                throw new JsonSyntaxException("Unexpected token " + reader.peek() + " at path " + reader.getPath());
+        }
+    }
+
+    protected void writeValue(JsonWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof Map) {
+            writer.beginObject();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writer.name(String.valueOf(entry.getKey()));
+                writeValue(writer, entry.getValue());
+            }
+
+            writer.endObject();
+        } else if (value instanceof Collection) {
+            writer.beginArray();
+
+            for (Object element : (Collection<?>) value) {
+                writeValue(writer, element);
+            }
+
+            writer.endArray();
+        } else if (value.getClass().isArray()) {
+            writeArray(writer, value);
+        } else if (value instanceof Boolean) {
+            writer.value((boolean) (Boolean) value);
+        } else if (value instanceof Number) {
+            writer.value((Number) value);
+        } else {
+            writer.value(value.toString());
+        }
+    }
+
+    private void writeArray(JsonWriter writer, Object array) throws IOException {
+        writer.beginArray();
+
+        if (array instanceof int[]) {
+            for (int value : (int[]) array) {
+                writer.value(value);
+            }
+        } else if (array instanceof long[]) {
+            for (long value : (long[]) array) {
+                writer.value(value);
+            }
+        } else if (array instanceof double[]) {
+            for (double value : (double[]) array) {
+                writer.value(value);
+            }
+        } else if (array instanceof float[]) {
+            for (float value : (float[]) array) {
+                writer.value(value);
+            }
+        } else if (array instanceof short[]) {
+            for (short value : (short[]) array) {
+                writer.value(value);
+            }
+        } else if (array instanceof byte[]) {
+            for (byte value : (byte[]) array) {
+                writer.value(value);
+            }
+        } else if (array instanceof boolean[]) {
+            for (boolean value : (boolean[]) array) {
+                writer.value(value);
+            }
+        } else if (array instanceof Object[]) {
+            for (Object value : (Object[]) array) {
+                writeValue(writer, value);
+            }
+        } else {
+            for (char value : (char[]) array) {
+                writer.value(String.valueOf(value));
+            }
+        }
+
+        writer.endArray();
     }
 
 }
@@ -1,45 +1,242 @@
 package kr.codingtree.fieldmate.file;
 
+import lombok.SneakyThrows;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.reader.StreamReader;
 import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public class YamlStorage extends FileStorage {
 
-    private DumperOptions dumperOptions = null;
-    private Constructor constructor = null;
-    private Representer representer = null;
+    private static final Pattern MULTILINE_PATTERN = Pattern.compile("\n|\u0085|\u2028|\u2029");
 
+    private final DumperOptions dumperOptions = new DumperOptions();
+    private final Resolver resolver = new Resolver();
 
-    private Yaml getYaml() {
-        if (constructor == null) {
-            constructor = new Constructor(new LoaderOptions());
-        }
-
-        if (dumperOptions == null) {
-            dumperOptions = new DumperOptions();
-            dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        }
+    // Yaml instances keep parser, constructor and emitter state, so every thread gets its own
+    private final ThreadLocal<NodeConstructor> constructor = ThreadLocal.withInitial(NodeConstructor::new);
+    private final ThreadLocal<Yaml> yaml = ThreadLocal.withInitial(() -> new Yaml(constructor.get(), new Representer(dumperOptions), dumperOptions));
 
-        if (representer == null) {
-            representer = new Representer(dumperOptions);
-        }
+    public YamlStorage() {
+        dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    }
 
-        return new Yaml(constructor, representer, dumperOptions);
+    private Yaml getYaml() {
+        return yaml.get();
     }
 
     @Override
+    @SneakyThrows(IOException.class)
     public String mapToString(Map<String, Object> data) {
-        return getYaml().dump(data);
+        StringWriter writer = new StringWriter();
+        write(writer, data);
+
+        return writer.toString();
     }
 
     @Override
     public LinkedHashMap<String, Object> stringToMap(String data) {
         return getYaml().load(data);
     }
+
+    /**
+     * Emits the document straight to SnakeYAML's emitter, producing the same output as {@link Yaml#dump(Object, Writer)}
+     * without building the intermediate node graph.
+     */
+    @Override
+    public void write(Writer writer, Map<String, Object> data) throws IOException {
+        Emitter emitter = new Emitter(writer, dumperOptions);
+
+        emitter.emit(new StreamStartEvent(null, null));
+        emitter.emit(new DocumentStartEvent(null, null, false, null, null));
+        emitValue(emitter, data);
+        emitter.emit(new DocumentEndEvent(null, null, false));
+        emitter.emit(new StreamEndEvent(null, null));
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> read(Reader reader) {
+        return getYaml().load(reader);
+    }
+
+    /**
+     * Composes the node graph first and constructs only the top-level entries the visitor accepts,
+     * so skipped entries are never turned into Java objects.
+     */
+    @Override
+    public void read(Reader reader, FieldVisitor visitor) {
+        Node root = getYaml().compose(reader);
+
+        if (root == null || root.getNodeId() != NodeId.mapping) {
+            LinkedHashMap<String, Object> map = root != null ? constructor.get().construct(root) : null;
+
+            if (map != null) {
+                map.forEach(visitor::visit);
+            }
+
+            return;
+        }
+
+        MappingNode mapping = (MappingNode) root;
+        ArrayList<NodeTuple> tuples = new ArrayList<>();
+
+        for (NodeTuple tuple : mapping.getValue()) {
+            Node key = tuple.getKeyNode();
+
+            // merge keys and non-scalar keys are kept, their entries are filtered after construction
+            if (key.getNodeId() != NodeId.scalar || key.getTag().equals(Tag.MERGE) || visitor.accepts(((ScalarNode) key).getValue())) {
+                tuples.add(tuple);
+            }
+        }
+
+        MappingNode filtered = new MappingNode(mapping.getTag(), tuples, mapping.getFlowStyle());
+        filtered.setMerged(mapping.isMerged());
+
+        LinkedHashMap<String, Object> map = constructor.get().construct(filtered);
+
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (visitor.accepts(String.valueOf(entry.getKey()))) {
+                visitor.visit(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void emitValue(Emitter emitter, Object value) throws IOException {
+        if (value instanceof Map) {
+            emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, dumperOptions.getDefaultFlowStyle()));
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                emitValue(emitter, entry.getKey());
+                emitValue(emitter, entry.getValue());
+            }
+
+            emitter.emit(new MappingEndEvent(null, null));
+        } else if (value instanceof Collection) {
+            emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, dumperOptions.getDefaultFlowStyle()));
+
+            for (Object element : (Collection<?>) value) {
+                emitValue(emitter, element);
+            }
+
+            emitter.emit(new SequenceEndEvent(null, null));
+        } else if (value != null && value.getClass().isArray()) {
+            emitArray(emitter, value);
+        } else if (value == null) {
+            emitScalar(emitter, Tag.NULL, "null");
+        } else if (value instanceof Boolean) {
+            emitScalar(emitter, Tag.BOOL, value.toString());
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            emitScalar(emitter, Tag.INT, value.toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            emitFloat(emitter, ((Number) value).doubleValue(), value.toString());
+        } else {
+            emitScalar(emitter, Tag.STR, value.toString());
+        }
+    }
+
+    private void emitArray(Emitter emitter, Object array) throws IOException {
+        emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, dumperOptions.getDefaultFlowStyle()));
+
+        if (array instanceof int[]) {
+            for (int value : (int[]) array) {
+                emitScalar(emitter, Tag.INT, Integer.toString(value));
+            }
+        } else if (array instanceof long[]) {
+            for (long value : (long[]) array) {
+                emitScalar(emitter, Tag.INT, Long.toString(value));
+            }
+        } else if (array instanceof double[]) {
+            for (double value : (double[]) array) {
+                emitFloat(emitter, value, Double.toString(value));
+            }
+        } else if (array instanceof float[]) {
+            for (float value : (float[]) array) {
+                emitFloat(emitter, value, Float.toString(value));
+            }
+        } else if (array instanceof short[]) {
+            for (short value : (short[]) array) {
+                emitScalar(emitter, Tag.INT, Short.toString(value));
+            }
+        } else if (array instanceof byte[]) {
+            for (byte value : (byte[]) array) {
+                emitScalar(emitter, Tag.INT, Byte.toString(value));
+            }
+        } else if (array instanceof boolean[]) {
+            for (boolean value : (boolean[]) array) {
+                emitScalar(emitter, Tag.BOOL, Boolean.toString(value));
+            }
+        } else if (array instanceof Object[]) {
+            for (Object value : (Object[]) array) {
+                emitValue(emitter, value);
+            }
+        } else {
+            for (char value : (char[]) array) {
+                emitScalar(emitter, Tag.STR, String.valueOf(value));
+            }
+        }
+
+        emitter.emit(new SequenceEndEvent(null, null));
+    }
+
+    private void emitFloat(Emitter emitter, double number, String value) throws IOException {
+        if (Double.isNaN(number)) {
+            emitScalar(emitter, Tag.FLOAT, ".NaN");
+        } else if (number == Double.POSITIVE_INFINITY) {
+            emitScalar(emitter, Tag.FLOAT, ".inf");
+        } else if (number == Double.NEGATIVE_INFINITY) {
+            emitScalar(emitter, Tag.FLOAT, "-.inf");
+        } else {
+            emitScalar(emitter, Tag.FLOAT, value);
+        }
+    }
+
+    private void emitScalar(Emitter emitter, Tag tag, String value) throws IOException {
+        ImplicitTuple implicit = new ImplicitTuple(tag.equals(resolver.resolve(NodeId.scalar, value, true)), tag.equals(resolver.resolve(NodeId.scalar, value, false)));
+        DumperOptions.ScalarStyle style = DumperOptions.ScalarStyle.PLAIN;
+
+        if (tag == Tag.STR) {
+            if (!StreamReader.isPrintable(value)) {
+                style = DumperOptions.ScalarStyle.DOUBLE_QUOTED;
+            } else if (MULTILINE_PATTERN.matcher(value).find()) {
+                style = DumperOptions.ScalarStyle.LITERAL;
+            }
+        }
+
+        emitter.emit(new ScalarEvent(null, tag.getValue(), implicit, value, null, null, style));
+    }
+
+    private static class NodeConstructor extends Constructor {
+
+        private NodeConstructor() {
+            super(new LoaderOptions());
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T construct(Node node) {
+            return (T) constructDocument(node);
+        }
+
+    }
+
 }
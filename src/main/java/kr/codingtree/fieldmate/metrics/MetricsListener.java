@@ -0,0 +1,28 @@
+package kr.codingtree.fieldmate.metrics;
+
+import java.lang.reflect.Type;
+
+/**
+ * Receives instrumentation from the load/save pipeline.
+ * Callbacks run on the thread doing the load or save, so implementations should be thread-safe and cheap.
+ *
+ * @see PipelineStats
+ */
+public interface MetricsListener {
+
+    /**
+     * The default listener, which ignores everything. While it is set the pipeline does not measure anything.
+     */
+    MetricsListener NONE = new MetricsListener() {
+    };
+
+    default void onEvent(PipelineEvent event) {
+    }
+
+    /**
+     * Called when a value is skipped because no converter is registered for its type.
+     */
+    default void onConverterMiss(Type type) {
+    }
+
+}
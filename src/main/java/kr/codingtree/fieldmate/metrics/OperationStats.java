@@ -0,0 +1,119 @@
+package kr.codingtree.fieldmate.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of every load and save of one class with one storage type.
+ */
+public class OperationStats implements OperationStatsMBean {
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder saves = new LongAdder();
+    private final LongAdder skippedSaves = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder fieldsLoaded = new LongAdder();
+    private final LongAdder fieldsSaved = new LongAdder();
+    private final LongAdder[] nanos = new LongAdder[Phase.values().length];
+
+    public OperationStats() {
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = new LongAdder();
+        }
+    }
+
+    public void add(PipelineEvent event) {
+        if (event.getOperation() == PipelineEvent.Operation.LOAD) {
+            loads.increment();
+            bytesRead.add(event.getBytes());
+            fieldsLoaded.add(event.getFieldCount());
+        } else {
+            saves.increment();
+            bytesWritten.add(event.getBytes());
+            fieldsSaved.add(event.getFieldCount());
+
+            if (event.isSkipped()) {
+                skippedSaves.increment();
+            }
+        }
+
+        if (event.getFailure() != null) {
+            failures.increment();
+        }
+
+        for (Phase phase : Phase.values()) {
+            nanos[phase.ordinal()].add(event.getNanos(phase));
+        }
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()].sum();
+    }
+
+    @Override
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    @Override
+    public long getSaves() {
+        return saves.sum();
+    }
+
+    @Override
+    public long getSkippedSaves() {
+        return skippedSaves.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getFieldsLoaded() {
+        return fieldsLoaded.sum();
+    }
+
+    @Override
+    public long getFieldsSaved() {
+        return fieldsSaved.sum();
+    }
+
+    @Override
+    public long getReadNanos() {
+        return getNanos(Phase.READ);
+    }
+
+    @Override
+    public long getConvertNanos() {
+        return getNanos(Phase.CONVERT);
+    }
+
+    @Override
+    public long getBindNanos() {
+        return getNanos(Phase.BIND);
+    }
+
+    @Override
+    public long getFingerprintNanos() {
+        return getNanos(Phase.FINGERPRINT);
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return getNanos(Phase.WRITE);
+    }
+
+}
@@ -0,0 +1,31 @@
+package kr.codingtree.fieldmate.metrics;
+
+public interface OperationStatsMBean {
+
+    long getLoads();
+
+    long getSaves();
+
+    long getSkippedSaves();
+
+    long getFailures();
+
+    long getBytesRead();
+
+    long getBytesWritten();
+
+    long getFieldsLoaded();
+
+    long getFieldsSaved();
+
+    long getReadNanos();
+
+    long getConvertNanos();
+
+    long getBindNanos();
+
+    long getFingerprintNanos();
+
+    long getWriteNanos();
+
+}
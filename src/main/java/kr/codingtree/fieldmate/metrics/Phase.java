@@ -0,0 +1,30 @@
+package kr.codingtree.fieldmate.metrics;
+
+/**
+ * Phases of a load or save that {@link PipelineEvent} reports timings for.
+ * Storages parse while reading and render while writing, so parsing is part of {@link #READ} and rendering part of {@link #WRITE}.
+ */
+public enum Phase {
+
+    /**
+     * Reading and parsing the file, excluding the time spent converting and binding entries as they are visited.
+     */
+    READ,
+    /**
+     * Converting between field values and file values.
+     */
+    CONVERT,
+    /**
+     * Reading and writing the fields of the object.
+     */
+    BIND,
+    /**
+     * Computing the fingerprint that decides whether a save can be skipped.
+     */
+    FINGERPRINT,
+    /**
+     * Rendering and writing the file.
+     */
+    WRITE
+
+}
@@ -0,0 +1,59 @@
+package kr.codingtree.fieldmate.metrics;
+
+import kr.codingtree.fieldmate.file.FileStorage;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Timings and sizes of a single load or save, handed to {@link MetricsListener#onEvent(PipelineEvent)} once it has finished.
+ */
+@Getter
+@Setter
+public class PipelineEvent {
+
+    public enum Operation {
+        LOAD, SAVE
+    }
+
+    @Setter(AccessLevel.NONE)
+    private final Operation operation;
+    @Setter(AccessLevel.NONE)
+    private final Class<?> type;
+    @Setter(AccessLevel.NONE)
+    private final Class<? extends FileStorage> storage;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final long[] nanos = new long[Phase.values().length];
+
+    private long bytes;
+    private int fieldCount;
+    private boolean skipped;
+    private Throwable failure;
+
+    public PipelineEvent(Operation operation, Class<?> type, Class<? extends FileStorage> storage) {
+        this.operation = operation;
+        this.type = type;
+        this.storage = storage;
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public void addNanos(Phase phase, long nanos) {
+        this.nanos[phase.ordinal()] += nanos;
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+
+        for (long value : nanos) {
+            total += value;
+        }
+
+        return total;
+    }
+
+}
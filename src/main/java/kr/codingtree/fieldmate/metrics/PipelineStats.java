@@ -0,0 +1,117 @@
+package kr.codingtree.fieldmate.metrics;
+
+import kr.codingtree.fieldmate.file.FileStorage;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.SneakyThrows;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MetricsListener} that keeps running totals per class and storage type.
+ * When created with an {@link MBeanServer}, every {@link OperationStats} is registered as
+ * {@code kr.codingtree.fieldmate:type=PipelineStats,class=<class name>,storage=<storage name>} when it is first used.
+ */
+public class PipelineStats implements MetricsListener {
+
+    private static final String DOMAIN = "kr.codingtree.fieldmate";
+
+    private final MBeanServer server;
+
+    private final ConcurrentHashMap<Key, OperationStats> stats = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> converterMisses = new ConcurrentHashMap<>();
+
+    public PipelineStats() {
+        this(null);
+    }
+
+    public PipelineStats(MBeanServer server) {
+        this.server = server;
+    }
+
+    @Override
+    public void onEvent(PipelineEvent event) {
+        getStats(event.getType(), event.getStorage()).add(event);
+    }
+
+    @Override
+    public void onConverterMiss(Type type) {
+        converterMisses.computeIfAbsent(type.getTypeName(), key -> new LongAdder()).increment();
+    }
+
+    public OperationStats getStats(Class<?> type, Class<? extends FileStorage> storage) {
+        Key key = new Key(type, storage);
+        OperationStats operationStats = stats.get(key);
+
+        if (operationStats == null) {
+            operationStats = new OperationStats();
+            OperationStats previous = stats.putIfAbsent(key, operationStats);
+
+            if (previous != null) {
+                return previous;
+            }
+
+            register(key, operationStats);
+        }
+
+        return operationStats;
+    }
+
+    /**
+     * @return The number of skipped values per type name
+     */
+    public Map<String, Long> getConverterMisses() {
+        LinkedHashMap<String, Long> misses = new LinkedHashMap<>();
+        converterMisses.forEach((type, count) -> misses.put(type, count.sum()));
+
+        return Collections.unmodifiableMap(misses);
+    }
+
+    /**
+     * Unregisters every MBean registered by this instance.
+     */
+    @SneakyThrows(Exception.class)
+    public void unregister() {
+        if (server != null) {
+            for (Key key : stats.keySet()) {
+                ObjectName name = key.getObjectName();
+
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            }
+        }
+    }
+
+    @SneakyThrows(Exception.class)
+    private void register(Key key, OperationStats operationStats) {
+        if (server != null) {
+            ObjectName name = key.getObjectName();
+
+            if (!server.isRegistered(name)) {
+                server.registerMBean(operationStats, name);
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class Key {
+
+        private final Class<?> type;
+        private final Class<? extends FileStorage> storage;
+
+        private ObjectName getObjectName() throws Exception {
+            return new ObjectName(DOMAIN + ":type=PipelineStats,class=" + ObjectName.quote(type.getName()) + ",storage=" + ObjectName.quote(storage.getName()));
+        }
+
+    }
+
+}
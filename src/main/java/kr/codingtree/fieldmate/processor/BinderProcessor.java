@@ -0,0 +1,181 @@
+package kr.codingtree.fieldmate.processor;
+
+import kr.codingtree.fieldmate.annotation.ExcludeField;
+import kr.codingtree.fieldmate.converter.ClassBinder;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a {@link ClassBinder} for every class that uses {@link kr.codingtree.fieldmate.annotation.FieldName},
+ * {@link ExcludeField} or {@link kr.codingtree.fieldmate.annotation.FieldGroup}, so FieldMate can read and write its fields without reflection.
+ * Add FieldMate to the annotation processor path (e.g. {@code annotationProcessor} in Gradle) to enable it.
+ * The generated binder accesses fields directly from a class in the same package, so it only covers non-private, non-final fields.
+ * Private or final fields, which includes every field of a class written with Lombok's {@code @Data} or {@code @Value}, are left out
+ * with a note and FieldMate binds them through reflection. A class without any accessible field gets no binder.
+ */
+@SupportedAnnotationTypes({"kr.codingtree.fieldmate.annotation.FieldName", "kr.codingtree.fieldmate.annotation.ExcludeField", "kr.codingtree.fieldmate.annotation.FieldGroup"})
+public class BinderProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.FIELD && element.getEnclosingElement() instanceof TypeElement) {
+                    types.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+
+        for (TypeElement type : types) {
+            try {
+                generate(type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not generate FieldMate binder: " + e.getMessage(), type);
+            }
+        }
+
+        return false;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        if (!isAccessible(type)) {
+            note(type, "FieldMate binder not generated for " + type + ": the class is not accessible from its package");
+            return;
+        }
+
+        List<VariableElement> fields = new ArrayList<>();
+
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getKind() == ElementKind.FIELD && element.getAnnotation(ExcludeField.class) == null) {
+                Set<Modifier> modifiers = element.getModifiers();
+
+                if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)) {
+                    note(element, "FieldMate binder for " + type + " does not cover field " + element.getSimpleName() + ": it is private or final");
+                    continue;
+                }
+
+                fields.add((VariableElement) element);
+            }
+        }
+
+        if (fields.isEmpty()) {
+            note(type, "FieldMate binder not generated for " + type + ": no field is accessible from its package");
+            return;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String binderName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_') + ClassBinder.SUFFIX;
+        String typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? binderName : packageName + "." + binderName, type);
+
+        try (Writer writer = file.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+
+            out.println("// Generated by " + getClass().getName() + " from " + typeName);
+            out.println("public final class " + binderName + " implements " + ClassBinder.class.getName() + " {");
+            out.println();
+            out.print("    private static final String[] FIELD_NAMES = {");
+
+            for (int i = 0; i < fields.size(); i++) {
+                out.print((i > 0 ? ", " : "") + "\"" + fields.get(i).getSimpleName() + "\"");
+            }
+
+            out.println("};");
+            out.println();
+            out.println("    @Override");
+            out.println("    public String[] getFieldNames() {");
+            out.println("        return FIELD_NAMES.clone();");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public Object get(Object target, int index) {");
+            out.println("        switch (index) {");
+
+            for (int i = 0; i < fields.size(); i++) {
+                out.println("            case " + i + ":");
+                out.println("                return " + access(typeName, fields.get(i)) + ";");
+            }
+
+            out.println("            default:");
+            out.println("                throw new IndexOutOfBoundsException(String.valueOf(index));");
+            out.println("        }");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+            out.println("    public void set(Object target, int index, Object value) {");
+            out.println("        switch (index) {");
+
+            for (int i = 0; i < fields.size(); i++) {
+                out.println("            case " + i + ":");
+                out.println("                " + access(typeName, fields.get(i)) + " = (" + castType(fields.get(i).asType()) + ") value;");
+                out.println("                break;");
+            }
+
+            out.println("            default:");
+            out.println("                throw new IndexOutOfBoundsException(String.valueOf(index));");
+            out.println("        }");
+            out.println("    }");
+            out.println();
+            out.println("}");
+        }
+    }
+
+    private boolean isAccessible(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE) || ((TypeElement) element).getNestingKind() == NestingKind.LOCAL || ((TypeElement) element).getNestingKind() == NestingKind.ANONYMOUS) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private String access(String typeName, VariableElement field) {
+        if (field.getModifiers().contains(Modifier.STATIC)) {
+            return typeName + "." + field.getSimpleName();
+        }
+
+        return "((" + typeName + ") target)." + field.getSimpleName();
+    }
+
+    private String castType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private void note(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+    }
+
+}
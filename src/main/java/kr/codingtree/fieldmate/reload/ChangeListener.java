@@ -0,0 +1,23 @@
+package kr.codingtree.fieldmate.reload;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * Notified by {@link ReloadService} after a watched file has been reloaded into its object.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+    /**
+     * @param file        The file that changed
+     * @param loadClass   The object the changed entries were bound to
+     * @param changedKeys The file keys whose value differs from the previous load
+     */
+    void onChange(File file, Object loadClass, Set<String> changedKeys);
+
+    default void onFailure(File file, Throwable cause) {
+        cause.printStackTrace();
+    }
+
+}
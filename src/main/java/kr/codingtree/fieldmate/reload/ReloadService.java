@@ -0,0 +1,253 @@
+package kr.codingtree.fieldmate.reload;
+
+import kr.codingtree.fieldmate.converter.ChangeTracker;
+import kr.codingtree.fieldmate.converter.ClassConverter;
+import kr.codingtree.fieldmate.file.FileStorage;
+import lombok.SneakyThrows;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches registered files and reloads them into their objects once a burst of writes has settled.
+ * Only the entries whose value changed since the previous load are bound again, so fields that were not edited
+ * keep their current value and identity.
+ * A file whose length and modification time still match the last save by the converter is taken as written by that save and not bound again.
+ * Files are watched and parsed on a single daemon thread owned by the service; call {@link #close()} to stop it.
+ * Changed entries are bound and listeners notified on the executor given to the service, the watcher thread by default.
+ * Binding writes the fields of the watched objects without any locking, so code reading those objects from other threads
+ * must either synchronize on them in its listener, or pass an executor running on the thread that owns the objects.
+ */
+public class ReloadService implements Closeable {
+
+    private final ClassConverter classConverter;
+    private final long debounceNanos;
+    private final Executor executor;
+    private final WatchService watchService;
+
+    private final ConcurrentHashMap<Path, CopyOnWriteArrayList<Watch>> watches = new ConcurrentHashMap<>();
+    private final HashMap<Path, WatchKey> directories = new HashMap<>();
+
+    // only touched by the watcher thread
+    private final HashMap<Path, Long> pending = new HashMap<>();
+
+    public ReloadService(ClassConverter classConverter, long debounceMillis) throws IOException {
+        this(classConverter, debounceMillis, Runnable::run);
+    }
+
+    /**
+     * @param executor Runs the binding of changed entries and the listener calls; should run tasks in submission order
+     */
+    public ReloadService(ClassConverter classConverter, long debounceMillis, Executor executor) throws IOException {
+        this.classConverter = classConverter;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.executor = executor;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        Thread thread = new Thread(this::run, "FieldMate-Reload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @SneakyThrows(Exception.class)
+    public void register(File file, Class<? extends FileStorage> fileType, Object loadClass, ChangeListener listener) {
+        register(file, classConverter.getStorage(fileType), loadClass, listener);
+    }
+
+    /**
+     * Starts watching a file for an object. The current content of the file is taken as the previous state,
+     * so the object is expected to have been loaded from it already.
+     */
+    public void register(File file, FileStorage fileType, Object loadClass, ChangeListener listener) throws IOException {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        Path directory = path.getParent();
+        Watch watch = new Watch(fileType, loadClass, listener);
+
+        if (file.exists()) {
+            watch.update(fileType.load(file));
+        }
+
+        synchronized (directories) {
+            if (!directories.containsKey(directory)) {
+                directories.put(directory, directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+            }
+
+            watches.computeIfAbsent(path, key -> new CopyOnWriteArrayList<>()).add(watch);
+        }
+    }
+
+    public boolean unregister(File file, Object loadClass) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+
+        synchronized (directories) {
+            CopyOnWriteArrayList<Watch> list = watches.get(path);
+
+            if (list == null || !list.removeIf(watch -> watch.loadClass == loadClass)) {
+                return false;
+            }
+
+            if (list.isEmpty()) {
+                watches.remove(path);
+
+                if (watches.keySet().stream().noneMatch(watched -> watched.getParent().equals(path.getParent()))) {
+                    directories.remove(path.getParent()).cancel();
+                }
+            }
+
+            return true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key;
+
+                if (pending.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long wait = Collections.min(pending.values()) - System.nanoTime();
+                    key = wait > 0 ? watchService.poll(wait, TimeUnit.NANOSECONDS) : watchService.poll();
+                }
+
+                if (key != null) {
+                    Path directory = (Path) key.watchable();
+
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            for (Path path : watches.keySet()) {
+                                if (path.getParent().equals(directory)) {
+                                    pending.put(path, System.nanoTime() + debounceNanos);
+                                }
+                            }
+                        } else {
+                            Path path = directory.resolve((Path) event.context());
+
+                            if (watches.containsKey(path)) {
+                                pending.put(path, System.nanoTime() + debounceNanos);
+                            }
+                        }
+                    }
+
+                    key.reset();
+                }
+
+                long now = System.nanoTime();
+
+                for (Iterator<Map.Entry<Path, Long>> iterator = pending.entrySet().iterator(); iterator.hasNext(); ) {
+                    Map.Entry<Path, Long> entry = iterator.next();
+
+                    if (entry.getValue() - now <= 0) {
+                        iterator.remove();
+                        reload(entry.getKey());
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the service was closed
+        }
+    }
+
+    private void reload(Path path) {
+        CopyOnWriteArrayList<Watch> list = watches.get(path);
+
+        if (list == null || !Files.isRegularFile(path)) {
+            return;
+        }
+
+        File file = path.toFile();
+        boolean saved = classConverter.getChangeTracker().isUnchanged(file);
+
+        for (Watch watch : list) {
+            try {
+                watch.reload(file, saved);
+            } catch (Throwable t) {
+                executor.execute(() -> watch.listener.onFailure(file, t));
+            }
+        }
+    }
+
+    private class Watch {
+
+        private final FileStorage fileType;
+        private final Object loadClass;
+        private final ChangeListener listener;
+
+        private HashMap<String, Long> fingerprints = new HashMap<>();
+
+        private Watch(FileStorage fileType, Object loadClass, ChangeListener listener) {
+            this.fileType = fileType;
+            this.loadClass = loadClass;
+            this.listener = listener;
+        }
+
+        /**
+         * @param saved Whether the file was last written by the converter, whose objects already hold its content
+         */
+        private void reload(File file, boolean saved) {
+            LinkedHashMap<String, Object> changed = update(fileType.load(file));
+
+            if (!changed.isEmpty() && !saved) {
+                executor.execute(() -> {
+                    try {
+                        classConverter.bind(changed, loadClass);
+                        listener.onChange(file, loadClass, changed.keySet());
+                    } catch (Throwable t) {
+                        listener.onFailure(file, t);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Replaces the remembered state with the given document.
+         *
+         * @return The entries that are new or differ from the remembered state
+         */
+        private LinkedHashMap<String, Object> update(Map<String, Object> data) {
+            HashMap<String, Long> fingerprints = new HashMap<>();
+            LinkedHashMap<String, Object> changed = new LinkedHashMap<>();
+
+            if (data != null) {
+                for (Map.Entry<String, Object> entry : data.entrySet()) {
+                    long fingerprint = ChangeTracker.fingerprint(entry.getValue());
+                    Long previous = this.fingerprints.get(entry.getKey());
+
+                    fingerprints.put(entry.getKey(), fingerprint);
+
+                    if (previous == null || previous != fingerprint) {
+                        changed.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            this.fingerprints = fingerprints;
+            return changed;
+        }
+
+    }
+
+}
@@ -0,0 +1,523 @@
+package kr.codingtree.fieldmate.store;
+
+import kr.codingtree.fieldmate.converter.AsyncConverter;
+import kr.codingtree.fieldmate.file.FileStorage;
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps loaded objects in memory by key, up to a maximum total weight, and loads missing ones from their files.
+ * The least recently used objects are evicted when the weight is exceeded or when they have not been accessed for the expiry time.
+ * Objects marked dirty are saved when they are evicted or flushed.
+ * Loads and saves run through an {@link AsyncConverter}, so concurrent gets for the same key share one load.
+ * Saves are scheduled per key while the lock is held, and a load or later save of a key waits for the scheduled saves of that key,
+ * so a load never overtakes the save of an object evicted from the same file. The objects are converted after the lock is released.
+ * An object whose save fails is marked dirty again, and an evicted one is cached again unless its key was loaded meanwhile;
+ * the failures of objects that could not be cached again are reported by the next {@link #flush()}.
+ * Expired objects are removed on the next access of the cache or call to {@link #cleanUp()}.
+ */
+public class ObjectCache<K, T> implements Closeable {
+
+    private final AsyncConverter asyncConverter;
+    private final FileStorage fileType;
+    private final Function<? super K, File> locator;
+    private final Function<? super K, ? extends T> factory;
+    private final long maximumWeight;
+    private final ToLongFunction<? super T> weigher;
+    private final long expireAfterAccessNanos;
+
+    private final LinkedHashMap<K, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    // failed saves of evicted objects that could not be cached again, reported by the next flush
+    private final ArrayList<Throwable> failures = new ArrayList<>();
+    // completed once the last scheduled save of a key has finished, so loads and later saves of the key wait for it
+    private final HashMap<K, CompletableFuture<Void>> writing = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder writeBacks = new LongAdder();
+    private final LongAdder writeBackFailures = new LongAdder();
+
+    /**
+     * Creates a cache holding at most the given number of objects.
+     */
+    public ObjectCache(AsyncConverter asyncConverter, FileStorage fileType, Function<? super K, File> locator, Function<? super K, ? extends T> factory,
+                       long maximumSize, long expireAfterAccessMillis) {
+        this(asyncConverter, fileType, locator, factory, maximumSize, object -> 1, expireAfterAccessMillis);
+    }
+
+    /**
+     * @param locator                 Returns the file of a key
+     * @param factory                 Creates the object a key is loaded into
+     * @param maximumWeight           The total weight above which objects are evicted
+     * @param weigher                 Returns the weight of an object, taken when it is cached and again when it is marked dirty
+     * @param expireAfterAccessMillis The time after the last access at which an object is evicted, or 0 to never expire objects
+     */
+    public ObjectCache(AsyncConverter asyncConverter, FileStorage fileType, Function<? super K, File> locator, Function<? super K, ? extends T> factory,
+                       long maximumWeight, ToLongFunction<? super T> weigher, long expireAfterAccessMillis) {
+        this.asyncConverter = asyncConverter;
+        this.fileType = fileType;
+        this.locator = locator;
+        this.factory = factory;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.expireAfterAccessNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterAccessMillis);
+    }
+
+    /**
+     * Returns the object of a key, loading it if it is not cached.
+     */
+    @SneakyThrows
+    public T get(K key) {
+        try {
+            return getAsync(key).join();
+        } catch (CompletionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    /**
+     * Returns the object of a key, loading it on the converter's executor if it is not cached.
+     * A failed load is not cached, so the next get tries again.
+     */
+    public CompletableFuture<T> getAsync(K key) {
+        Entry<T> entry;
+        boolean created = false;
+        CompletableFuture<Void> written = null;
+        List<WriteBack<K, T>> evicted = new ArrayList<>();
+
+        synchronized (entries) {
+            long now = System.nanoTime();
+            expire(now, evicted);
+            entry = entries.get(key);
+
+            if (entry == null) {
+                misses.increment();
+                entry = new Entry<>();
+                entries.put(key, entry);
+                created = true;
+                written = writing.get(key);
+            } else {
+                hits.increment();
+            }
+
+            entry.accessed = now;
+        }
+
+        writeBack(evicted);
+
+        if (created) {
+            Entry<T> loading = entry;
+            File file = locator.apply(key);
+            T object = factory.apply(key);
+            CompletableFuture<T> load = written != null
+                    ? written.thenCompose(ignored -> asyncConverter.load(file, fileType, object))
+                    : asyncConverter.load(file, fileType, object);
+
+            load.whenComplete((loaded, failure) -> {
+                if (failure != null) {
+                    synchronized (entries) {
+                        remove(key, loading);
+                    }
+
+                    loading.future.completeExceptionally(failure);
+                } else {
+                    cache(key, loading, loaded, false);
+                    loading.future.complete(loaded);
+                }
+            });
+        }
+
+        return entry.future;
+    }
+
+    /**
+     * @return The object of a key if it is cached and loaded, without loading it otherwise
+     */
+    public T getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<T> entry = entries.get(key);
+
+            if (entry == null || entry.value == null) {
+                return null;
+            }
+
+            hits.increment();
+            entry.accessed = System.nanoTime();
+
+            return entry.value;
+        }
+    }
+
+    /**
+     * Caches a new object for a key as dirty, replacing any cached object, so it is saved when evicted or flushed.
+     */
+    public void put(K key, T object) {
+        Entry<T> entry = new Entry<>();
+        entry.future.complete(object);
+
+        synchronized (entries) {
+            Entry<T> previous = entries.get(key);
+
+            if (previous != null) {
+                remove(key, previous);
+            }
+
+            entry.accessed = System.nanoTime();
+            entries.put(key, entry);
+        }
+
+        cache(key, entry, object, true);
+    }
+
+    /**
+     * Marks the cached object of a key as modified, so it is saved when evicted or flushed, and weighs it again.
+     *
+     * @return Whether the object is cached
+     */
+    public boolean markDirty(K key) {
+        List<WriteBack<K, T>> evicted = new ArrayList<>();
+
+        synchronized (entries) {
+            Entry<T> entry = entries.get(key);
+
+            if (entry == null || entry.value == null) {
+                return false;
+            }
+
+            entry.dirty = true;
+            weight -= entry.weight;
+            entry.weight = weigher.applyAsLong(entry.value);
+            weight += entry.weight;
+
+            trim(key, evicted);
+        }
+
+        writeBack(evicted);
+        return true;
+    }
+
+    /**
+     * Removes the object of a key without saving it.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            Entry<T> entry = entries.get(key);
+
+            if (entry != null) {
+                remove(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Saves every dirty object, keeping it cached.
+     *
+     * @return A future completed when every save has completed, exceptionally if one of them failed
+     * or if the save of an evicted object failed since the last flush and the object could not be cached again
+     */
+    public CompletableFuture<Void> flush() {
+        List<WriteBack<K, T>> dirty = new ArrayList<>();
+        Throwable lost = null;
+
+        synchronized (entries) {
+            for (Map.Entry<K, Entry<T>> entry : entries.entrySet()) {
+                if (entry.getValue().dirty) {
+                    dirty.add(schedule(entry.getKey(), entry.getValue()));
+                }
+            }
+
+            for (Throwable failure : failures) {
+                if (lost == null) {
+                    lost = failure;
+                } else {
+                    lost.addSuppressed(failure);
+                }
+            }
+
+            failures.clear();
+        }
+
+        CompletableFuture<Void> saves = writeBack(dirty);
+
+        if (lost == null) {
+            return saves;
+        }
+
+        Throwable failure = lost;
+
+        return saves.handle((ignored, saveFailure) -> {
+            if (saveFailure != null) {
+                failure.addSuppressed(saveFailure);
+            }
+
+            throw new CompletionException(failure);
+        });
+    }
+
+    /**
+     * Evicts the objects that have expired, saving the dirty ones.
+     */
+    public void cleanUp() {
+        List<WriteBack<K, T>> evicted = new ArrayList<>();
+
+        synchronized (entries) {
+            expire(System.nanoTime(), evicted);
+        }
+
+        writeBack(evicted);
+    }
+
+    /**
+     * Saves every dirty object, waits for the saves and removes every object.
+     */
+    @Override
+    public void close() {
+        flush().join();
+
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    private void cache(K key, Entry<T> entry, T object, boolean dirty) {
+        List<WriteBack<K, T>> evicted = new ArrayList<>();
+
+        synchronized (entries) {
+            if (entry.removed) {
+                return;
+            }
+
+            entry.value = object;
+            entry.dirty = dirty;
+            entry.weight = weigher.applyAsLong(object);
+            weight += entry.weight;
+
+            trim(key, evicted);
+        }
+
+        writeBack(evicted);
+    }
+
+    /**
+     * Evicts the least recently used loaded objects until the weight is within the maximum, keeping the given key if possible.
+     */
+    private void trim(K keep, List<WriteBack<K, T>> evicted) {
+        Iterator<Map.Entry<K, Entry<T>>> iterator = entries.entrySet().iterator();
+
+        while (weight > maximumWeight && iterator.hasNext()) {
+            Map.Entry<K, Entry<T>> entry = iterator.next();
+
+            if (entry.getValue().value != null && !entry.getKey().equals(keep)) {
+                iterator.remove();
+                evict(entry.getKey(), entry.getValue(), evicted);
+            }
+        }
+    }
+
+    private void expire(long now, List<WriteBack<K, T>> evicted) {
+        if (expireAfterAccessNanos <= 0) {
+            return;
+        }
+
+        Iterator<Map.Entry<K, Entry<T>>> iterator = entries.entrySet().iterator();
+
+        // entries are in access order, so the first one accessed recently enough ends the scan
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<T>> entry = iterator.next();
+
+            if (now - entry.getValue().accessed < expireAfterAccessNanos) {
+                break;
+            }
+
+            if (entry.getValue().value != null) {
+                iterator.remove();
+                evict(entry.getKey(), entry.getValue(), evicted);
+            }
+        }
+    }
+
+    private void evict(K key, Entry<T> entry, List<WriteBack<K, T>> evicted) {
+        entry.removed = true;
+        entry.evicted = true;
+        weight -= entry.weight;
+        evictions.increment();
+
+        if (entry.dirty) {
+            evicted.add(schedule(key, entry));
+        }
+    }
+
+    private void remove(K key, Entry<T> entry) {
+        if (entries.get(key) == entry) {
+            entries.remove(key);
+        }
+
+        if (!entry.removed) {
+            entry.removed = true;
+            weight -= entry.weight;
+        }
+    }
+
+    /**
+     * Reserves the next save of a key for a dirty object. Called with the lock held,
+     * so a load of the same key started after the lock is released waits for the save.
+     */
+    private WriteBack<K, T> schedule(K key, Entry<T> entry) {
+        // cleared before the snapshot is taken, so a modification marked during the save is saved again later
+        entry.dirty = false;
+
+        CompletableFuture<Void> previous = writing.get(key);
+        WriteBack<K, T> writeBack = new WriteBack<>(key, entry, previous != null ? previous : CompletableFuture.completedFuture(null), new CompletableFuture<>());
+        writing.put(key, writeBack.written);
+
+        return writeBack;
+    }
+
+    /**
+     * Saves scheduled objects once the previous saves of their keys have finished. Called without the lock,
+     * since converting an object for saving runs on the calling thread.
+     */
+    private CompletableFuture<Void> writeBack(List<WriteBack<K, T>> scheduled) {
+        if (scheduled.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<?>[] saves = new CompletableFuture<?>[scheduled.size()];
+
+        for (int i = 0; i < saves.length; i++) {
+            WriteBack<K, T> writeBack = scheduled.get(i);
+            writeBacks.increment();
+
+            saves[i] = writeBack.previous.thenCompose(ignored -> asyncConverter.save(locator.apply(writeBack.key), fileType, writeBack.entry.value)).whenComplete((written, failure) -> {
+                if (failure != null) {
+                    restore(writeBack.key, writeBack.entry, failure);
+                }
+
+                synchronized (entries) {
+                    writing.remove(writeBack.key, writeBack.written);
+                }
+
+                writeBack.written.complete(null);
+            });
+        }
+
+        return CompletableFuture.allOf(saves);
+    }
+
+    /**
+     * Marks an object whose save failed as dirty again, caching it again if it was evicted and its key has not been loaded since.
+     */
+    private void restore(K key, Entry<T> entry, Throwable failure) {
+        List<WriteBack<K, T>> evicted = new ArrayList<>();
+        writeBackFailures.increment();
+
+        synchronized (entries) {
+            entry.dirty = true;
+
+            // an invalidated or replaced object was discarded on purpose
+            if (!entry.removed || !entry.evicted) {
+                return;
+            }
+
+            if (entries.containsKey(key)) {
+                failures.add(failure);
+                return;
+            }
+
+            entry.removed = false;
+            entry.evicted = false;
+            entries.put(key, entry);
+            weight += entry.weight;
+
+            trim(key, evicted);
+        }
+
+        writeBack(evicted);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of objects removed for exceeding the maximum weight or the expiry time
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The number of saves of dirty objects, by eviction or flush
+     */
+    public long getWriteBacks() {
+        return writeBacks.sum();
+    }
+
+    /**
+     * @return The number of saves of dirty objects that failed
+     */
+    public long getWriteBackFailures() {
+        return writeBackFailures.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getWeight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectCache[size=" + size() + ", weight=" + getWeight() + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + ", writeBacks=" + getWriteBacks() + ", writeBackFailures=" + getWriteBackFailures() + "]";
+    }
+
+    private static class Entry<T> {
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private T value;
+        private long weight;
+        private long accessed;
+        private volatile boolean dirty;
+        private boolean removed;
+        private boolean evicted;
+    }
+
+    @AllArgsConstructor
+    private static class WriteBack<K, T> {
+        private final K key;
+        private final Entry<T> entry;
+        // completed normally, whether the previous save of the key failed or not
+        private final CompletableFuture<Void> previous;
+        private final CompletableFuture<Void> written;
+    }
+
+}
@@ -0,0 +1,544 @@
+package kr.codingtree.fieldmate.store;
+
+import kr.codingtree.fieldmate.converter.ChangeTracker;
+import kr.codingtree.fieldmate.converter.ClassConverter;
+import kr.codingtree.fieldmate.file.FileStorage;
+import lombok.AllArgsConstructor;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps many keyed objects in a few append-only segment files instead of one file per object.
+ * Every save appends a record to the newest segment and moves the key in an in-memory index to it.
+ * Segments whose records are mostly superseded are compacted in the background by copying their live records to the newest segment.
+ * On open, the segments are replayed to rebuild the index, and a torn record left by a crash at the end of the newest segment is cut off.
+ * Older segments are never written again once a newer one is started, so a corrupt record in one of them fails the open instead,
+ * since dropping it could bring back an older value of its key.
+ * Records are checksummed, and values are encoded with the given {@link FileStorage}.
+ */
+public class SegmentStore implements Closeable {
+
+    private static final byte[] MAGIC = {'F', 'M', 'S', 1};
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+
+    // key length, value length, key, value, checksum
+    private static final int HEADER_SIZE = 8;
+    private static final int CHECKSUM_SIZE = 4;
+    private static final int TOMBSTONE = -1;
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final double COMPACTION_RATIO = 0.5;
+
+    private final ClassConverter classConverter;
+    private final File directory;
+    private final FileStorage fileType;
+    private final long segmentSize;
+    private final boolean sync;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+    // segment of the latest tombstone of every removed key, needed while an older segment may still hold a live record for it
+    private final HashMap<String, Integer> tombstones = new HashMap<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FieldMate-Compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Segment active;
+
+    public SegmentStore(ClassConverter classConverter, File directory, FileStorage fileType) throws IOException {
+        this(classConverter, directory, fileType, DEFAULT_SEGMENT_SIZE, false);
+    }
+
+    /**
+     * @param segmentSize The size after which a new segment is started
+     * @param sync        Whether every write is forced to the device before it returns
+     */
+    public SegmentStore(ClassConverter classConverter, File directory, FileStorage fileType, long segmentSize, boolean sync) throws IOException {
+        this.classConverter = classConverter;
+        this.directory = directory;
+        this.fileType = fileType;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+
+        directory.mkdirs();
+        File[] files = directory.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+
+                if (matcher.matches()) {
+                    int id = Integer.parseInt(matcher.group(1));
+                    segments.put(id, new Segment(id, file));
+                }
+            }
+        }
+
+        try {
+            for (Segment segment : segments.values()) {
+                recover(segment, segment == segments.lastEntry().getValue());
+            }
+        } catch (IOException e) {
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+
+            compactor.shutdown();
+            throw e;
+        }
+
+        active = segments.isEmpty() ? createSegment(0) : segments.lastEntry().getValue();
+    }
+
+    /**
+     * Serializes the fields of an object and stores them under the key.
+     *
+     * @return false if the stored entries were already the same and nothing was written
+     */
+    public boolean save(String key, Object saveClass) throws IOException {
+        return put(key, classConverter.toMap(saveClass));
+    }
+
+    /**
+     * Loads the entries stored under the key into the fields of an object.
+     *
+     * @return false if nothing is stored under the key
+     */
+    public boolean load(String key, Object loadClass) throws IOException {
+        LinkedHashMap<String, Object> data = get(key);
+
+        if (data == null) {
+            return false;
+        }
+
+        classConverter.bind(data, loadClass);
+        return true;
+    }
+
+    public boolean put(String key, Map<String, Object> data) throws IOException {
+        long fingerprint = ChangeTracker.fingerprint(fileType.getClass(), data);
+        Location location = index.get(key);
+
+        if (location != null && location.hasFingerprint && location.fingerprint == fingerprint) {
+            return false;
+        }
+
+        byte[] value = fileType.toBytes(data);
+
+        lock.writeLock().lock();
+
+        try {
+            Location written = append(key, value);
+            written.fingerprint = fingerprint;
+            written.hasFingerprint = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        scheduleCompaction();
+        return true;
+    }
+
+    public LinkedHashMap<String, Object> get(String key) throws IOException {
+        byte[] value;
+
+        lock.readLock().lock();
+
+        try {
+            Location location = index.get(key);
+
+            if (location == null) {
+                return null;
+            }
+
+            value = readValue(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return fileType.fromBytes(value);
+    }
+
+    public boolean remove(String key) throws IOException {
+        lock.writeLock().lock();
+
+        try {
+            if (!index.containsKey(key)) {
+                return false;
+            }
+
+            append(key, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        scheduleCompaction();
+        return true;
+    }
+
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Compacts every segment except the newest whose records are mostly superseded, on the calling thread.
+     */
+    public void compact() throws IOException {
+        ArrayList<Segment> candidates = new ArrayList<>();
+
+        lock.readLock().lock();
+
+        try {
+            for (Segment segment : segments.values()) {
+                if (segment != active && segment.isCompactable()) {
+                    candidates.add(segment);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        for (Segment segment : candidates) {
+            compact(segment);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        lock.writeLock().lock();
+
+        try {
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param last Whether the segment is the newest one, the only one a crash can have left a torn write in
+     */
+    private void recover(Segment segment, boolean last) throws IOException {
+        FileChannel channel = segment.channel;
+        long size = channel.size();
+
+        if (size < MAGIC.length) {
+            // created but never written, or cut off inside the header
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(MAGIC), 0);
+            segment.size = MAGIC.length;
+            return;
+        }
+
+        ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+        readFully(channel, magic, 0);
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic.get(i) != MAGIC[i]) {
+                throw new IOException("Not a FieldMate segment: " + segment.file);
+            }
+        }
+
+        long position = MAGIC.length;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(channel, header, position);
+
+            int keyLength = header.getInt(0), valueLength = header.getInt(4);
+            long length = (long) HEADER_SIZE + keyLength + Math.max(valueLength, 0) + CHECKSUM_SIZE;
+
+            if (keyLength < 0 || valueLength < TOMBSTONE || position + length > size) {
+                break;
+            }
+
+            ByteBuffer record = ByteBuffer.allocate((int) length);
+            readFully(channel, record, position);
+
+            if (!isValid(record.array())) {
+                break;
+            }
+
+            String key = new String(record.array(), HEADER_SIZE, keyLength, StandardCharsets.UTF_8);
+            apply(key, segment, position, (int) length, valueLength);
+
+            position += length;
+        }
+
+        if (position < size) {
+            if (!last) {
+                throw new IOException("Corrupt record at " + position + " in sealed segment " + segment.file);
+            }
+
+            // everything after the first torn or corrupt record was never acknowledged as one whole write
+            channel.truncate(position);
+        }
+
+        segment.size = position;
+    }
+
+    private Location append(String key, byte[] value) throws IOException {
+        if (active.size >= segmentSize) {
+            if (sync) {
+                active.channel.force(false);
+            }
+
+            active = createSegment(active.id + 1);
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int valueLength = value != null ? value.length : TOMBSTONE;
+        int length = HEADER_SIZE + keyBytes.length + (value != null ? value.length : 0) + CHECKSUM_SIZE;
+
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(keyBytes.length).putInt(valueLength).put(keyBytes);
+
+        if (value != null) {
+            record.put(value);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, length - CHECKSUM_SIZE);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        long position = active.size;
+
+        while (record.hasRemaining()) {
+            position += active.channel.write(record, position);
+        }
+
+        if (sync) {
+            active.channel.force(false);
+        }
+
+        Location location = apply(key, active, active.size, length, valueLength);
+        active.size += length;
+
+        return location;
+    }
+
+    /**
+     * Points the key at a record, accounting the record it replaces as garbage.
+     *
+     * @return The new location, or null for a tombstone
+     */
+    private Location apply(String key, Segment segment, long offset, int length, int valueLength) {
+        Location location = valueLength != TOMBSTONE ? new Location(segment, offset, length) : null;
+        Location previous = location != null ? index.put(key, location) : index.remove(key);
+
+        if (previous != null) {
+            previous.segment.garbage += previous.length;
+        }
+
+        if (location == null) {
+            segment.garbage += length;
+            tombstones.put(key, segment.id);
+        } else {
+            tombstones.remove(key);
+        }
+
+        return location;
+    }
+
+    private byte[] readValue(Location location) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(location.length);
+        readFully(location.segment.channel, record, location.offset);
+
+        if (!isValid(record.array())) {
+            throw new IOException("Corrupt record at " + location.offset + " in " + location.segment.file);
+        }
+
+        int keyLength = record.getInt(0), valueLength = record.getInt(4);
+        byte[] value = new byte[valueLength];
+        System.arraycopy(record.array(), HEADER_SIZE + keyLength, value, 0, valueLength);
+
+        return value;
+    }
+
+    private void compact(Segment segment) throws IOException {
+        ArrayList<String> keys = new ArrayList<>();
+
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            if (entry.getValue().segment == segment) {
+                keys.add(entry.getKey());
+            }
+        }
+
+        // one record per lock, so loads and saves keep going while a segment is copied
+        for (String key : keys) {
+            lock.writeLock().lock();
+
+            try {
+                Location location = index.get(key);
+
+                if (location != null && location.segment == segment) {
+                    Location copied = append(key, readValue(location));
+                    copied.fingerprint = location.fingerprint;
+                    copied.hasFingerprint = location.hasFingerprint;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        lock.writeLock().lock();
+
+        try {
+            if (!segments.containsKey(segment.id)) {
+                return;
+            }
+
+            boolean olderSegments = segments.firstKey() < segment.id;
+
+            for (Map.Entry<String, Integer> entry : new ArrayList<>(tombstones.entrySet())) {
+                if (entry.getValue() == segment.id) {
+                    if (olderSegments) {
+                        // an older segment may still hold a record the tombstone hides
+                        append(entry.getKey(), null);
+                    } else {
+                        tombstones.remove(entry.getKey());
+                    }
+                }
+            }
+
+            // the copies must be durable before their only other copy is deleted, whether or not writes are synced
+            active.channel.force(false);
+
+            segments.remove(segment.id);
+            segment.channel.close();
+
+            if (!segment.file.delete()) {
+                throw new IOException("Could not delete compacted segment " + segment.file);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void scheduleCompaction() {
+        lock.readLock().lock();
+
+        try {
+            for (Segment segment : segments.values()) {
+                if (segment != active && !segment.scheduled && segment.isCompactable()) {
+                    segment.scheduled = true;
+                    compactor.execute(() -> {
+                        try {
+                            compact(segment);
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                    });
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Segment segment = new Segment(id, new File(directory, "segment-" + id + ".log"));
+        segment.channel.truncate(0);
+        segment.channel.write(ByteBuffer.wrap(MAGIC), 0);
+        segment.size = MAGIC.length;
+
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private boolean isValid(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length - CHECKSUM_SIZE);
+
+        return (int) crc.getValue() == ByteBuffer.wrap(record, record.length - CHECKSUM_SIZE, CHECKSUM_SIZE).getInt();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+
+            if (read == -1) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private static class Segment {
+
+        private final int id;
+        private final File file;
+        private final FileChannel channel;
+
+        private volatile long size;
+        private volatile long garbage;
+        private volatile boolean scheduled;
+
+        private Segment(int id, File file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        private boolean isCompactable() {
+            return size > MAGIC.length && garbage >= (size - MAGIC.length) * COMPACTION_RATIO;
+        }
+
+    }
+
+    @AllArgsConstructor
+    private static class Location {
+
+        private final Segment segment;
+        private final long offset;
+        private final int length;
+
+        private volatile long fingerprint;
+        private volatile boolean hasFingerprint;
+
+        private Location(Segment segment, long offset, int length) {
+            this(segment, offset, length, 0, false);
+        }
+
+    }
+
+}
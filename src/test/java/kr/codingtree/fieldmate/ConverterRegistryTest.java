@@ -0,0 +1,96 @@
+package kr.codingtree.fieldmate;
+
+import kr.codingtree.fieldmate.converter.ValueConverter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConverterRegistryTest {
+
+    @Test
+    void findsConvertersByValueClassAndSupertypes() {
+        ConverterRegistry registry = new ConverterRegistry();
+        ShapeConverter converter = new ShapeConverter();
+        registry.registerConverter(converter);
+
+        assertSame(converter, registry.getConverter(Shape.class));
+        assertSame(converter, registry.getConverter(new Circle()));
+        assertTrue(registry.hasConverter(UUID.randomUUID()));
+        assertNull(registry.getConverter("text"));
+    }
+
+    @Test
+    void registrationChangesReplaceCachedLookups() {
+        ConverterRegistry registry = new ConverterRegistry();
+        assertNull(registry.getConverter(Circle.class));
+
+        assertTrue(registry.registerConverter(ShapeConverter.class));
+        assertTrue(registry.hasConverter(Circle.class));
+
+        assertTrue(registry.unregisterConverter(Shape.class));
+        assertNull(registry.getConverter(Circle.class));
+
+        registry.clearConverters();
+        assertNull(registry.getConverter(UUID.class));
+    }
+
+    @Test
+    void lookupsRaceRegistrationsSafely() throws Exception {
+        ConverterRegistry registry = new ConverterRegistry();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        registry.getConverter(Circle.class);
+                        registry.getConverter(UUID.class);
+                    }
+                }));
+            }
+
+            registry.registerConverter(new ShapeConverter());
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(registry.hasConverter(Circle.class));
+        assertTrue(registry.hasConverter(UUID.class));
+    }
+
+    interface Shape {
+    }
+
+    static class Circle implements Shape {
+    }
+
+    public static class ShapeConverter extends ValueConverter<Shape> {
+
+        @Override
+        public String serialize(Shape value) {
+            return "circle";
+        }
+
+        @Override
+        public Shape deserialize(String value) {
+            return new Circle();
+        }
+
+    }
+
+}
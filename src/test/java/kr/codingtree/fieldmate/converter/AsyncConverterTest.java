@@ -0,0 +1,113 @@
+package kr.codingtree.fieldmate.converter;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncConverterTest {
+
+    @TempDir
+    File directory;
+
+    private final ClassConverter classConverter = new ClassConverter(new FieldConverter(new ConverterRegistry()));
+    private final JsonStorage storage = new JsonStorage();
+
+    // runs submitted tasks only when the test drains it
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final Executor executor = tasks::add;
+    private final AsyncConverter asyncConverter = new AsyncConverter(classConverter, executor, 2);
+
+    @Test
+    void saveCapturesTheFieldsWhenItIsCalled() {
+        File file = new File(directory, "inventory.json");
+        Inventory inventory = new Inventory();
+        inventory.items.add("sword");
+        inventory.counts = new int[] {1, 2};
+
+        CompletableFuture<Boolean> future = asyncConverter.save(file, storage, inventory);
+
+        inventory.items.add("shield");
+        inventory.counts[0] = 9;
+        drain();
+
+        assertTrue(future.join());
+
+        Inventory loaded = new Inventory();
+        classConverter.load(file, storage, loaded);
+
+        assertEquals(Arrays.asList("sword"), loaded.items);
+        assertArrayEquals(new int[] {1, 2}, loaded.counts);
+    }
+
+    @Test
+    void waitingSavesToTheSameFileAreCoalesced() {
+        File file = new File(directory, "inventory.json");
+        Inventory inventory = new Inventory();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            inventory.items.add("item" + i);
+            futures.add(asyncConverter.save(file, storage, inventory));
+        }
+
+        assertSame(futures.get(0), futures.get(2));
+        assertEquals(1, tasks.size());
+        drain();
+
+        assertTrue(futures.get(0).join());
+
+        Inventory loaded = new Inventory();
+        classConverter.load(file, storage, loaded);
+        assertEquals(Arrays.asList("item0", "item1", "item2"), loaded.items);
+
+        CompletableFuture<Boolean> unchanged = asyncConverter.save(file, storage, inventory);
+        drain();
+
+        assertFalse(unchanged.join(), "the fields did not change since the coalesced write");
+    }
+
+    @Test
+    void operationsOnAFileRunInSubmissionOrder() {
+        File file = new File(directory, "inventory.json");
+        Inventory inventory = new Inventory();
+        inventory.items.add("first");
+
+        asyncConverter.save(file, storage, inventory);
+        CompletableFuture<Inventory> load = asyncConverter.load(file, storage, new Inventory());
+
+        inventory.items.set(0, "second");
+        CompletableFuture<Boolean> save = asyncConverter.save(file, storage, inventory);
+        drain();
+
+        assertTrue(save.join());
+        assertEquals(Arrays.asList("first"), load.join().items);
+    }
+
+    private void drain() {
+        for (Runnable task; (task = tasks.poll()) != null; ) {
+            task.run();
+        }
+    }
+
+    static class Inventory {
+        List<String> items = new ArrayList<>();
+        int[] counts = {};
+    }
+
+}
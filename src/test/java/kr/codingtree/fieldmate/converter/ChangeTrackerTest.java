@@ -0,0 +1,98 @@
+package kr.codingtree.fieldmate.converter;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeTrackerTest {
+
+    @TempDir
+    File directory;
+
+    private final ClassConverter classConverter = new ClassConverter(new FieldConverter(new ConverterRegistry()));
+
+    @Test
+    void unchangedSaveIsSkipped() {
+        File file = new File(directory, "profile.json");
+        JsonStorage storage = new JsonStorage();
+        Profile profile = new Profile();
+
+        assertTrue(classConverter.save(file, storage, profile));
+        assertFalse(classConverter.save(file, storage, profile));
+
+        profile.tags.set(0, "changed");
+        assertTrue(classConverter.save(file, storage, profile));
+        assertFalse(classConverter.save(file, storage, profile));
+    }
+
+    @Test
+    void fileModifiedElsewhereIsWrittenAgain() throws Exception {
+        File file = new File(directory, "profile.json");
+        JsonStorage storage = new JsonStorage();
+        Profile profile = new Profile();
+
+        assertTrue(classConverter.save(file, storage, profile));
+        Files.write(file.toPath(), "{}".getBytes(StandardCharsets.UTF_8));
+        assertTrue(classConverter.save(file, storage, profile));
+
+        assertTrue(file.delete());
+        assertTrue(classConverter.save(file, storage, profile));
+        assertTrue(file.exists());
+    }
+
+    @Test
+    void remembersOnlyTheMostRecentlySavedFiles() throws Exception {
+        ChangeTracker tracker = new ChangeTracker(2);
+        File first = file("first"), second = file("second"), third = file("third");
+
+        tracker.update(first, 1);
+        tracker.update(second, 2);
+        assertTrue(tracker.isUnchanged(first, 1));
+
+        tracker.update(third, 3);
+
+        assertEquals(2, tracker.size());
+        assertTrue(tracker.isUnchanged(first, 1));
+        assertFalse(tracker.isUnchanged(second, 2));
+        assertFalse(tracker.isUnchanged(third, 4));
+    }
+
+    @Test
+    void combinedFingerprintsMatchTheWholeMap() {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "a");
+        map.put("values", Arrays.asList(1, 2.5, true));
+        map.put("array", new int[]{1, 2});
+
+        long[] entries = map.entrySet().stream().mapToLong(entry -> ChangeTracker.fingerprint(entry.getKey(), entry.getValue())).toArray();
+
+        assertEquals(ChangeTracker.fingerprint(JsonStorage.class, map), ChangeTracker.fingerprint(JsonStorage.class, entries, entries.length));
+        assertNotEquals(ChangeTracker.fingerprint(Arrays.asList(1, 2)), ChangeTracker.fingerprint(Arrays.asList(2, 1)));
+    }
+
+    private File file(String name) throws Exception {
+        File file = new File(directory, name);
+        Files.write(file.toPath(), name.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    static class Profile {
+        String name = "profile";
+        List<String> tags = new ArrayList<>(Arrays.asList("a", "b"));
+    }
+
+}
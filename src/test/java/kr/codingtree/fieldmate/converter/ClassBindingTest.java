@@ -0,0 +1,105 @@
+package kr.codingtree.fieldmate.converter;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.annotation.ExcludeField;
+import kr.codingtree.fieldmate.annotation.FieldGroup;
+import kr.codingtree.fieldmate.annotation.FieldName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassBindingTest {
+
+    @Test
+    void bindsFieldsInDeclarationOrderUnderTheirFileKeys() {
+        ClassBinding binding = new ClassBinding(Settings.class);
+
+        assertArrayEquals(new String[]{"display-name", "level", "volume"},
+                Arrays.stream(binding.getFields()).map(FieldBinding::getName).toArray(String[]::new));
+        assertEquals("name", binding.getField("display-name").getField().getName());
+        assertNull(binding.getField("cache"));
+        assertNull(binding.getField("name"));
+    }
+
+    @Test
+    void resolvesGroupsAndFieldNamesToFileKeys() {
+        ClassBinding binding = new ClassBinding(Settings.class);
+
+        assertEquals(new HashSet<>(Arrays.asList("level", "volume")), binding.getGroup("audio"));
+        assertEquals(Collections.emptySet(), binding.getGroup("missing"));
+        assertEquals(new HashSet<>(Arrays.asList("display-name", "level")), binding.getKeys(Arrays.asList("name", "level")));
+        assertThrows(IllegalArgumentException.class, () -> binding.getKeys(Collections.singleton("cache")));
+    }
+
+    @Test
+    void readsAndWritesPrivateFields() {
+        FieldBinding binding = new ClassBinding(Settings.class).getField("level");
+        Settings settings = new Settings();
+
+        binding.set(settings, 7);
+
+        assertEquals(7, settings.level);
+        assertEquals(7, binding.get(settings));
+    }
+
+    @Test
+    void generatedBinderIsUsedForAccessibleFields() {
+        ClassBinding binding = new ClassBinding(Partial.class);
+        Partial partial = new Partial();
+
+        assertTrue(binding.getField("title").isGenerated());
+        assertTrue(binding.getField("count").isGenerated());
+        assertFalse(binding.getField("secret").isGenerated());
+
+        binding.getField("title").set(partial, "generated");
+        binding.getField("count").set(partial, 3);
+        binding.getField("secret").set(partial, 4L);
+
+        assertEquals("generated", binding.getField("title").get(partial));
+        assertEquals(3, partial.count);
+        assertEquals(4L, partial.secret);
+    }
+
+    @Test
+    void classWithOnlyPrivateFieldsHasNoBinder() {
+        for (FieldBinding field : new ClassBinding(Settings.class).getFields()) {
+            assertFalse(field.isGenerated());
+        }
+    }
+
+    @Test
+    void converterCachesOneBindingPerClass() {
+        ClassConverter classConverter = new ClassConverter(new FieldConverter(new ConverterRegistry()));
+
+        assertSame(classConverter.getBinding(Settings.class), classConverter.getBinding(Settings.class));
+    }
+
+    static class Settings {
+        @FieldName("display-name")
+        private String name = "";
+        @FieldGroup("audio")
+        private int level;
+        @FieldGroup({"audio"})
+        private double volume;
+        @ExcludeField
+        private Object cache;
+    }
+
+    static class Partial {
+        @FieldName("title")
+        String name = "";
+        int count;
+        private long secret;
+    }
+
+}
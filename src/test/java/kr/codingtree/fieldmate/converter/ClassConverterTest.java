@@ -0,0 +1,269 @@
+package kr.codingtree.fieldmate.converter;
+
+import com.google.gson.GsonBuilder;
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.annotation.FieldGroup;
+import kr.codingtree.fieldmate.annotation.FieldName;
+import kr.codingtree.fieldmate.file.FileStorage;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import kr.codingtree.fieldmate.file.YamlStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassConverterTest {
+
+    @TempDir
+    File directory;
+
+    private final ClassConverter classConverter = new ClassConverter(new FieldConverter(new ConverterRegistry()));
+
+    @Test
+    void saveFieldOfAnotherInstanceRendersEveryField() {
+        File file = new File(directory, "profile.json");
+        JsonStorage storage = new JsonStorage();
+
+        Profile first = new Profile();
+        first.name = "first";
+        first.level = 1;
+        classConverter.saveField(file, storage, first, "level");
+
+        Profile second = new Profile();
+        second.name = "second";
+        second.level = 2;
+        classConverter.saveField(file, storage, second, "level");
+
+        Profile loaded = new Profile();
+        classConverter.load(file, storage, loaded);
+
+        assertEquals("second", loaded.name);
+        assertEquals(2, loaded.level);
+    }
+
+    @Test
+    void loadAllReportsFailuresAndKeepsFileOrder() throws Exception {
+        JsonStorage storage = new JsonStorage();
+        List<File> files = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            Profile profile = new Profile();
+            profile.name = "profile" + i;
+            profile.level = i;
+
+            File file = new File(directory, "profile" + i + ".json");
+            classConverter.save(file, storage, profile);
+            files.add(file);
+        }
+
+        File broken = new File(directory, "broken.json");
+        Files.write(broken.toPath(), "{\"name\": ".getBytes(StandardCharsets.UTF_8));
+        files.add(10, broken);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        LoadResult<Profile> result;
+
+        try {
+            result = classConverter.loadAll(files, storage, file -> new Profile(), executor);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(result.hasFailures());
+        assertEquals(Collections.singleton(broken), result.getFailures().keySet());
+
+        List<File> loaded = new ArrayList<>(files);
+        loaded.remove(broken);
+        assertEquals(loaded, new ArrayList<>(result.getLoaded().keySet()));
+
+        for (int i = 0; i < 20; i++) {
+            Profile profile = result.getLoaded().get(loaded.get(i));
+            assertEquals("profile" + i, profile.name);
+            assertEquals(i, profile.level);
+        }
+    }
+
+    @Test
+    void emptyFileLoadsWithoutChangingFields() throws Exception {
+        for (FileStorage storage : new FileStorage[] {new JsonStorage(), new YamlStorage()}) {
+            File file = new File(directory, "empty." + storage.getClass().getSimpleName());
+            Files.write(file.toPath(), new byte[0]);
+
+            Profile profile = new Profile();
+            profile.name = "kept";
+            profile.level = 3;
+            classConverter.load(file, storage, profile);
+
+            assertEquals("kept", profile.name);
+            assertEquals(3, profile.level);
+        }
+    }
+
+    @Test
+    void unknownKeysAreSkippedWhileStreaming() throws Exception {
+        File file = new File(directory, "profile.json");
+        Files.write(file.toPath(), "{\"removed\": {\"nested\": [1, 2]}, \"name\": \"streamed\", \"level\": 4}".getBytes(StandardCharsets.UTF_8));
+
+        Profile profile = new Profile();
+        classConverter.load(file, new JsonStorage(), profile);
+
+        assertEquals("streamed", profile.name);
+        assertEquals(4, profile.level);
+    }
+
+    @Test
+    void savedDocumentsMatchTheFormatLibraries() throws Exception {
+        Profile profile = new Profile();
+        profile.name = "<caf\u00e9>";
+        profile.level = 7;
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", profile.name);
+        data.put("level", profile.level);
+
+        File json = new File(directory, "profile.json");
+        classConverter.save(json, new JsonStorage(), profile);
+        assertEquals(new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(data), read(json));
+
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+
+        File yaml = new File(directory, "profile.yml");
+        classConverter.save(yaml, new YamlStorage(), profile);
+        assertEquals(new Yaml(options).dump(data), read(yaml));
+    }
+
+    @Test
+    void loadFieldsBindsOnlyTheNamedFields() {
+        File file = new File(directory, "settings.yml");
+        YamlStorage storage = new YamlStorage();
+        classConverter.save(file, storage, settings("saved", 5, 0.5));
+
+        Settings settings = settings("current", 1, 1.0);
+        classConverter.loadFields(file, storage, settings, Arrays.asList("name", "volume"));
+
+        assertEquals("saved", settings.name);
+        assertEquals(1, settings.level);
+        assertEquals(0.5, settings.volume);
+        assertThrows(IllegalArgumentException.class, () -> classConverter.loadFields(file, storage, settings, Collections.singleton("missing")));
+    }
+
+    @Test
+    void loadGroupBindsOnlyTheFieldsOfTheGroup() {
+        File file = new File(directory, "settings.json");
+        JsonStorage storage = new JsonStorage();
+        classConverter.save(file, storage, settings("saved", 5, 0.5));
+
+        Settings settings = settings("current", 1, 1.0);
+        classConverter.loadGroup(file, storage, settings, "audio");
+
+        assertEquals("current", settings.name);
+        assertEquals(5, settings.level);
+        assertEquals(0.5, settings.volume);
+
+        classConverter.loadGroup(file, storage, settings, "missing");
+        assertEquals("current", settings.name);
+    }
+
+    @Test
+    void saveAllWritesEveryFileAndReportsFailures() throws Exception {
+        JsonStorage storage = new JsonStorage();
+        Map<File, Profile> objects = new LinkedHashMap<>();
+
+        for (int i = 0; i < 5; i++) {
+            Profile profile = new Profile();
+            profile.name = "profile" + i;
+            objects.put(new File(directory, "profile" + i + ".json"), profile);
+        }
+
+        // fails while staging, since its directory cannot be created
+        File blocker = new File(directory, "blocker");
+        Files.write(blocker.toPath(), new byte[0]);
+        File unstageable = new File(blocker, "profile.json");
+        objects.put(unstageable, new Profile());
+
+        // fails while committing, since a non-empty directory cannot be replaced
+        File occupied = new File(directory, "occupied.json");
+        new File(occupied, "child").mkdirs();
+        objects.put(occupied, new Profile());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        SaveResult result;
+
+        try {
+            result = classConverter.saveAll(objects, storage, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(Arrays.asList(unstageable, occupied), new ArrayList<>(result.getFailures().keySet()));
+        assertEquals(5, result.getSaved().size());
+        assertTrue(result.getSaved().values().stream().allMatch(saved -> saved));
+
+        for (int i = 0; i < 5; i++) {
+            Profile loaded = new Profile();
+            classConverter.load(new File(directory, "profile" + i + ".json"), storage, loaded);
+            assertEquals("profile" + i, loaded.name);
+        }
+
+        String[] temps = directory.list((dir, name) -> name.endsWith(".tmp"));
+        assertEquals(0, temps.length, Arrays.toString(temps));
+
+        objects.remove(unstageable);
+        objects.remove(occupied);
+        SaveResult unchanged = classConverter.saveAll(objects, storage, Runnable::run);
+
+        assertFalse(unchanged.hasFailures());
+        assertTrue(unchanged.getSaved().values().stream().noneMatch(saved -> saved));
+    }
+
+    @Test
+    void storageClassesShareOneInstance() throws Exception {
+        assertSame(classConverter.getStorage(JsonStorage.class), classConverter.getStorage(JsonStorage.class));
+    }
+
+    private static String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static Settings settings(String name, int level, double volume) {
+        Settings settings = new Settings();
+        settings.name = name;
+        settings.level = level;
+        settings.volume = volume;
+        return settings;
+    }
+
+    static class Settings {
+        @FieldName("display-name")
+        String name = "";
+        @FieldGroup("audio")
+        int level;
+        @FieldGroup("audio")
+        double volume;
+    }
+
+    static class Profile {
+        String name = "";
+        int level;
+    }
+
+}
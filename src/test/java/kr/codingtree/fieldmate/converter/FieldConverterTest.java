@@ -0,0 +1,206 @@
+package kr.codingtree.fieldmate.converter;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.file.BinaryStorage;
+import kr.codingtree.fieldmate.file.FileStorage;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import kr.codingtree.fieldmate.file.YamlStorage;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FieldConverterTest {
+
+    @TempDir
+    File directory;
+
+    private final ClassConverter classConverter = new ClassConverter(new FieldConverter(new ConverterRegistry()));
+
+    static Stream<Arguments> storages() {
+        return Stream.of(Arguments.of(new JsonStorage()), Arguments.of(new YamlStorage()), Arguments.of(new BinaryStorage()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void numbersAreReadBackAsTheFieldType(FileStorage storage) {
+        File file = new File(directory, "numbers");
+        Numbers numbers = new Numbers();
+        numbers.boxedLong = 5L;
+        numbers.boxedShort = 6;
+        numbers.boxedByte = 7;
+        numbers.boxedInteger = 8;
+        numbers.boxedDouble = 9.0;
+        numbers.boxedFloat = 10.5f;
+        numbers.largeLong = Long.MAX_VALUE - 1;
+        numbers.primitiveLong = 11;
+        numbers.primitiveShort = 12;
+
+        classConverter.save(file, storage, numbers);
+        Numbers loaded = new Numbers();
+        classConverter.load(file, storage, loaded);
+
+        assertEquals(Long.valueOf(5), loaded.boxedLong);
+        assertEquals(Short.valueOf((short) 6), loaded.boxedShort);
+        assertEquals(Byte.valueOf((byte) 7), loaded.boxedByte);
+        assertEquals(Integer.valueOf(8), loaded.boxedInteger);
+        assertEquals(Double.valueOf(9.0), loaded.boxedDouble);
+        assertEquals(Float.valueOf(10.5f), loaded.boxedFloat);
+        assertEquals(11, loaded.primitiveLong);
+        assertEquals(12, loaded.primitiveShort);
+
+        if (!(storage instanceof JsonStorage)) {
+            // JSON numbers are read back as doubles, which cannot hold every long
+            assertEquals(Long.valueOf(Long.MAX_VALUE - 1), loaded.largeLong);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void primitiveArraysRoundTrip(FileStorage storage) {
+        File file = new File(directory, "arrays");
+        PrimitiveArrays arrays = new PrimitiveArrays();
+        arrays.ints = new int[] {1, -2, Integer.MAX_VALUE};
+        arrays.longs = new long[] {3, -4, 1L << 40};
+        arrays.doubles = new double[] {0.5, -1.25};
+        arrays.floats = new float[] {2.5f, -0.75f};
+        arrays.shorts = new short[] {5, -6};
+        arrays.bytes = new byte[] {7, -8};
+        arrays.booleans = new boolean[] {true, false, true};
+        arrays.chars = new char[] {'a', '\u00e9'};
+
+        classConverter.save(file, storage, arrays);
+        PrimitiveArrays loaded = new PrimitiveArrays();
+        classConverter.load(file, storage, loaded);
+
+        assertArrayEquals(arrays.ints, loaded.ints);
+        assertArrayEquals(arrays.longs, loaded.longs);
+        assertArrayEquals(arrays.doubles, loaded.doubles);
+        assertArrayEquals(arrays.floats, loaded.floats);
+        assertArrayEquals(arrays.shorts, loaded.shorts);
+        assertArrayEquals(arrays.bytes, loaded.bytes);
+        assertArrayEquals(arrays.booleans, loaded.booleans);
+        assertArrayEquals(arrays.chars, loaded.chars);
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void emptyPrimitiveArraysRoundTrip(FileStorage storage) {
+        File file = new File(directory, "empty");
+        PrimitiveArrays arrays = new PrimitiveArrays();
+
+        classConverter.save(file, storage, arrays);
+        PrimitiveArrays loaded = new PrimitiveArrays();
+        loaded.ints = new int[] {1};
+        classConverter.load(file, storage, loaded);
+
+        assertArrayEquals(new int[0], loaded.ints);
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void collectionsWithoutConstructorAreReplaced(FileStorage storage) {
+        File file = new File(directory, "collections");
+        Defaults saved = new Defaults();
+        saved.fixed = new ArrayList<>(Arrays.asList("c", "d", "e"));
+        saved.empty = new ArrayList<>(Arrays.asList("f"));
+        saved.set = new HashSet<>(Arrays.asList("g"));
+        saved.sorted = new TreeSet<>(Arrays.asList("i", "h"));
+        saved.queue = new ArrayDeque<>(Arrays.asList("j"));
+        saved.map = new HashMap<>(Collections.singletonMap("k", "l"));
+
+        classConverter.save(file, storage, saved);
+        Defaults loaded = new Defaults();
+        classConverter.load(file, storage, loaded);
+
+        assertEquals(Arrays.asList("c", "d", "e"), loaded.fixed);
+        assertEquals(Arrays.asList("f"), loaded.empty);
+        assertEquals(Collections.singleton("g"), loaded.set);
+        assertEquals(new TreeSet<>(Arrays.asList("h", "i")), loaded.sorted);
+        assertEquals("j", loaded.queue.peek());
+        assertEquals(Collections.singletonMap("k", "l"), loaded.map);
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void largeContainersAreConvertedInParallelInOrder(FileStorage storage) {
+        FieldConverter fieldConverter = new FieldConverter(new ConverterRegistry());
+        fieldConverter.setParallelThreshold(16);
+        ClassConverter parallel = new ClassConverter(fieldConverter);
+
+        File file = new File(directory, "identifiers");
+        Identifiers identifiers = new Identifiers();
+
+        for (int i = 0; i < 1000; i++) {
+            identifiers.list.add(new UUID(i, i));
+            identifiers.map.put(new UUID(0, i), new UUID(i, 0));
+        }
+
+        parallel.save(file, storage, identifiers);
+        assertEquals(classConverter.toMap(identifiers), parallel.toMap(identifiers));
+
+        Identifiers loaded = new Identifiers();
+        parallel.load(file, storage, loaded);
+
+        assertEquals(identifiers.list, loaded.list);
+        assertEquals(new ArrayList<>(identifiers.map.entrySet()), new ArrayList<>(loaded.map.entrySet()));
+    }
+
+    static class Identifiers {
+        List<UUID> list = new ArrayList<>();
+        Map<UUID, UUID> map = new LinkedHashMap<>();
+    }
+
+    static class Defaults {
+        List<String> fixed = Arrays.asList("a", "b");
+        List<String> empty = Collections.emptyList();
+        Set<String> set = Collections.unmodifiableSet(new HashSet<>());
+        SortedSet<String> sorted = Collections.emptySortedSet();
+        Queue<String> queue = new ArrayDeque<>();
+        Map<String, String> map = Collections.emptyMap();
+    }
+
+    static class PrimitiveArrays {
+        int[] ints = {};
+        long[] longs = {};
+        double[] doubles = {};
+        float[] floats = {};
+        short[] shorts = {};
+        byte[] bytes = {};
+        boolean[] booleans = {};
+        char[] chars = {};
+    }
+
+    static class Numbers {
+        Long boxedLong;
+        Short boxedShort;
+        Byte boxedByte;
+        Integer boxedInteger;
+        Double boxedDouble;
+        Float boxedFloat;
+        Long largeLong;
+        long primitiveLong;
+        short primitiveShort;
+    }
+
+}
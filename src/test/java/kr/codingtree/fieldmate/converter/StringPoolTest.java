@@ -0,0 +1,99 @@
+package kr.codingtree.fieldmate.converter;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringPoolTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void equalStringsShareOneInstance() {
+        StringPool pool = new StringPool(16, 8);
+        String first = new String("value");
+        String second = new String("value");
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertTrue(pool.getSavedBytes() > 0);
+
+        String tooLong = new String("longer than eight");
+        pool.intern(tooLong);
+        assertNotSame(tooLong, pool.intern(new String("longer than eight")));
+
+        pool.clear();
+        assertSame(second, pool.intern(second));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void treesArePooledInPlace() {
+        StringPool pool = new StringPool();
+        String key = new String("key");
+        pool.intern(key);
+
+        Map<Object, Object> tree = new LinkedHashMap<>();
+        tree.put(new String("key"), new ArrayList<>(Arrays.asList(new String("key"), 1)));
+
+        assertSame(tree, pool.internTree(tree));
+
+        Map.Entry<Object, Object> entry = tree.entrySet().iterator().next();
+        assertSame(key, entry.getKey());
+        assertSame(key, ((List<Object>) entry.getValue()).get(0));
+        assertEquals(1, ((List<Object>) entry.getValue()).get(1));
+    }
+
+    @Test
+    void loadedStringsAreDeduplicatedAcrossObjects() {
+        FieldConverter fieldConverter = new FieldConverter(new ConverterRegistry());
+        fieldConverter.setStringPool(new StringPool());
+        ClassConverter classConverter = new ClassConverter(fieldConverter);
+        JsonStorage storage = new JsonStorage();
+
+        Member member = new Member();
+        member.role = "admin";
+        member.tags.add("staff");
+        member.attributes.put("team", "core");
+
+        List<Member> loaded = new ArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            File file = new File(directory, "member" + i + ".json");
+            classConverter.save(file, storage, member);
+
+            Member copy = new Member();
+            classConverter.load(file, storage, copy);
+            loaded.add(copy);
+        }
+
+        assertEquals("admin", loaded.get(0).role);
+        assertSame(loaded.get(0).role, loaded.get(1).role);
+        assertSame(loaded.get(0).tags.get(0), loaded.get(1).tags.get(0));
+        assertSame(loaded.get(0).attributes.keySet().iterator().next(), loaded.get(1).attributes.keySet().iterator().next());
+        assertSame(loaded.get(0).attributes.get("team"), loaded.get(1).attributes.get("team"));
+    }
+
+    static class Member {
+        String role = "";
+        List<String> tags = new ArrayList<>();
+        Map<String, String> attributes = new LinkedHashMap<>();
+    }
+
+}
@@ -0,0 +1,142 @@
+package kr.codingtree.fieldmate.converter;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.file.BinaryStorage;
+import kr.codingtree.fieldmate.file.FileStorage;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import kr.codingtree.fieldmate.file.YamlStorage;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class TreeConverterTest {
+
+    @TempDir
+    File directory;
+
+    private final ClassConverter classConverter;
+
+    TreeConverterTest() {
+        ConverterRegistry registry = new ConverterRegistry();
+        registry.registerConverter(new DurationConverter());
+        registry.registerConverter(new PointConverter());
+        classConverter = new ClassConverter(new FieldConverter(registry));
+    }
+
+    static Stream<Arguments> storages() {
+        return Stream.of(Arguments.of(new JsonStorage()), Arguments.of(new YamlStorage()), Arguments.of(new BinaryStorage()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void treeValuesRoundTrip(FileStorage storage) {
+        File file = new File(directory, "route");
+        Route route = new Route();
+        route.timeout = Duration.ofMillis(1500);
+        route.start = new Point(1, -2);
+        route.stops = new ArrayList<>(Arrays.asList(new Point(3, 4), new Point(5, 6)));
+        route.waits = new LinkedHashMap<>(Collections.singletonMap(Duration.ofSeconds(2), "short"));
+        route.named = new LinkedHashMap<>(Collections.singletonMap("end", new Point(7, 8)));
+
+        classConverter.save(file, storage, route);
+        Route loaded = new Route();
+        classConverter.load(file, storage, loaded);
+
+        assertEquals(route.timeout, loaded.timeout);
+        assertEquals(route.start, loaded.start);
+        assertEquals(route.stops, loaded.stops);
+        assertEquals(route.waits, loaded.waits);
+        assertEquals(route.named, loaded.named);
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void treeValuesAreWrittenAsNativeValues(FileStorage storage) {
+        File file = new File(directory, "route");
+        Route route = new Route();
+        route.timeout = Duration.ofMillis(1500);
+        route.start = new Point(1, -2);
+
+        classConverter.save(file, storage, route);
+        Map<String, Object> data = storage.load(file);
+
+        assertEquals(1500, ((Number) data.get("timeout")).intValue());
+        assertInstanceOf(Map.class, data.get("start"));
+        assertEquals(-2, ((Number) ((Map<?, ?>) data.get("start")).get("y")).intValue());
+    }
+
+    static class Route {
+        Duration timeout = Duration.ZERO;
+        Point start = new Point(0, 0);
+        List<Point> stops = new ArrayList<>();
+        Map<Duration, String> waits = new LinkedHashMap<>();
+        Map<String, Point> named = new LinkedHashMap<>();
+    }
+
+    static class Point {
+        final int x, y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Point && ((Point) o).x == x && ((Point) o).y == y;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * x + y;
+        }
+    }
+
+    static class DurationConverter extends TreeConverter<Duration> {
+
+        @Override
+        public Object toTree(Duration value) {
+            return value.toMillis();
+        }
+
+        @Override
+        public Duration fromTree(Object value) {
+            // map keys come back as Strings
+            return Duration.ofMillis(value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString()));
+        }
+
+    }
+
+    static class PointConverter extends TreeConverter<Point> {
+
+        @Override
+        public Object toTree(Point value) {
+            Map<String, Object> tree = new LinkedHashMap<>();
+            tree.put("x", value.x);
+            tree.put("y", value.y);
+            return tree;
+        }
+
+        @Override
+        public Point fromTree(Object value) {
+            Map<?, ?> tree = (Map<?, ?>) value;
+            return new Point(((Number) tree.get("x")).intValue(), ((Number) tree.get("y")).intValue());
+        }
+
+    }
+
+}
@@ -0,0 +1,83 @@
+package kr.codingtree.fieldmate.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryStorageTest {
+
+    @TempDir
+    File directory;
+
+    private final BinaryStorage storage = new BinaryStorage();
+
+    @Test
+    void documentReadsBackAsSaved() {
+        LinkedHashMap<String, Object> nested = new LinkedHashMap<>();
+        nested.put("name", "inner");
+        nested.put("flag", false);
+
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "outer \u00e9\ud83d\ude00");
+        map.put("small", 42);
+        map.put("negative", -42);
+        map.put("large", Long.MIN_VALUE);
+        map.put("ratio", 0.25);
+        map.put("missing", null);
+        map.put("list", Arrays.asList("a", 1, true));
+        map.put("nested", nested);
+
+        File file = new File(directory, "document.bin");
+        storage.save(file, map);
+
+        assertEquals(map, storage.load(file));
+        assertEquals(map, storage.fromBytes(storage.toBytes(map)));
+        assertEquals(map, storage.stringToMap(storage.mapToString(map)));
+    }
+
+    @Test
+    void primitiveArraysAreReadBackUnboxed() {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        map.put("ints", new int[]{1, -2, Integer.MAX_VALUE});
+        map.put("doubles", new double[]{0.5, -1});
+
+        LinkedHashMap<String, Object> loaded = storage.fromBytes(storage.toBytes(map));
+
+        assertArrayEquals(new long[]{1, -2, Integer.MAX_VALUE}, (long[]) loaded.get("ints"));
+        assertArrayEquals(new double[]{0.5, -1}, (double[]) loaded.get("doubles"));
+    }
+
+    @Test
+    void largeFileIsReadThroughAMappedBuffer() {
+        List<String> values = new ArrayList<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            values.add("value number " + i);
+        }
+
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        map.put("values", values);
+
+        File file = new File(directory, "large.bin");
+        storage.save(file, map);
+
+        assertTrue(file.length() > 1024 * 1024);
+        assertEquals(map, storage.load(file));
+    }
+
+    @Test
+    void emptyFileHasNoDocument() {
+        assertNull(storage.load(new File(directory, "empty.bin")));
+    }
+
+}
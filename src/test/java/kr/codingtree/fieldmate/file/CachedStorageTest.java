@@ -0,0 +1,118 @@
+package kr.codingtree.fieldmate.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedStorageTest {
+
+    @TempDir
+    File directory;
+
+    private final AtomicInteger parses = new AtomicInteger();
+
+    @Test
+    void sidecarIsUsedByTheNextSession() {
+        File file = new File(directory, "config.yml");
+        File cache = new File(directory, "cache");
+        Map<String, Object> data = document("first");
+        new YamlStorage().save(file, data);
+
+        assertEquals(data, storage(cache).load(file));
+        assertEquals(1, parses.get());
+        assertEquals(1, cache.listFiles().length);
+
+        assertEquals(data, storage(cache).load(file));
+        assertEquals(1, parses.get(), "the file was parsed again");
+    }
+
+    @Test
+    void changedFileIsParsedAgain() throws Exception {
+        File file = new File(directory, "config.yml");
+        File cache = new File(directory, "cache");
+        new YamlStorage().save(file, document("first"));
+        storage(cache).load(file);
+
+        Map<String, Object> changed = document("second");
+        Files.write(file.toPath(), new YamlStorage().mapToString(changed).getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(file.lastModified() + 2000);
+
+        assertEquals(changed, storage(cache).load(file));
+        assertEquals(2, parses.get());
+
+        assertEquals(changed, storage(cache).load(file));
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    void savingDeletesTheSidecar() {
+        File file = new File(directory, "config.yml");
+        File cache = new File(directory, "cache");
+        CachedStorage storage = storage(cache);
+
+        storage.save(file, document("first"));
+        storage.load(file);
+        assertEquals(1, cache.listFiles().length);
+
+        storage.save(file, document("second"));
+        assertEquals(0, cache.listFiles().length);
+        assertEquals(document("second"), storage.load(file));
+    }
+
+    @Test
+    void damagedSidecarFallsBackToParsing() throws Exception {
+        File file = new File(directory, "config.yml");
+        File cache = new File(directory, "cache");
+        Map<String, Object> data = document("first");
+        new YamlStorage().save(file, data);
+        storage(cache).load(file);
+
+        File sidecar = cache.listFiles()[0];
+        byte[] content = Files.readAllBytes(sidecar.toPath());
+        Files.write(sidecar.toPath(), Arrays.copyOf(content, content.length - 5));
+
+        assertEquals(data, storage(cache).load(file));
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    void documentsTheBinaryFormatCannotReproduceAreNotCached() throws Exception {
+        File file = new File(directory, "config.yml");
+        File cache = new File(directory, "cache");
+        Files.write(file.toPath(), "1: one\nwhen: 2001-12-14t21:59:43.10-05:00\n".getBytes(StandardCharsets.UTF_8));
+
+        storage(cache).load(file);
+        assertTrue(!cache.exists() || cache.listFiles().length == 0);
+    }
+
+    private CachedStorage storage(File cache) {
+        return new CachedStorage(new YamlStorage() {
+            @Override
+            public LinkedHashMap<String, Object> read(Reader reader) {
+                parses.incrementAndGet();
+                return super.read(reader);
+            }
+        }, cache);
+    }
+
+    private static Map<String, Object> document(String name) {
+        LinkedHashMap<String, Object> data = new LinkedHashMap<>();
+        data.put("name", name);
+        data.put("level", 3);
+        data.put("ratio", 0.5);
+        data.put("tags", Arrays.asList("a", "b"));
+        return data;
+    }
+
+}
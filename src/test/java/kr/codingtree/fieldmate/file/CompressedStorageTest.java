@@ -0,0 +1,93 @@
+package kr.codingtree.fieldmate.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedStorageTest {
+
+    @TempDir
+    File directory;
+
+    private final CompressedStorage storage = new CompressedStorage(new JsonStorage());
+
+    @Test
+    void filesAreCompressedAndReadBack() throws Exception {
+        File file = new File(directory, "document.json.gz");
+        Map<String, Object> data = document();
+
+        storage.save(file, data);
+
+        try (InputStream in = new FileInputStream(file)) {
+            assertEquals(0x1f, in.read());
+            assertEquals(0x8b, in.read());
+        }
+
+        try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            assertEquals(data, new JsonStorage().read(in));
+        }
+
+        assertEquals(data, storage.load(file));
+        assertTrue(file.length() < new JsonStorage().mapToString(data).length() / 4);
+    }
+
+    @Test
+    void uncompressedFilesStillLoad() {
+        File file = new File(directory, "document.json");
+        Map<String, Object> data = document();
+        new JsonStorage().save(file, data);
+
+        assertEquals(data, storage.load(file));
+
+        List<String> visited = new ArrayList<>();
+        storage.load(file, new FieldVisitor() {
+            @Override
+            public boolean accepts(String name) {
+                return name.equals("name");
+            }
+
+            @Override
+            public void visit(String name, Object value) {
+                visited.add(name + "=" + value);
+            }
+        });
+
+        assertEquals(Collections.singletonList("name=document"), visited);
+    }
+
+    @Test
+    void emptyFileLoadsAsNoDocument() {
+        File file = new File(directory, "missing.json.gz");
+        Map<String, Object> data = storage.load(file);
+
+        assertTrue(file.exists());
+        assertTrue(data == null || data.isEmpty());
+    }
+
+    private static Map<String, Object> document() {
+        List<Object> lines = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            lines.add("line " + i);
+        }
+
+        LinkedHashMap<String, Object> data = new LinkedHashMap<>();
+        data.put("name", "document");
+        data.put("enabled", true);
+        data.put("lines", lines);
+        return data;
+    }
+
+}
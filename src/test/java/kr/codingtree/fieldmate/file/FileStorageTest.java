@@ -0,0 +1,132 @@
+package kr.codingtree.fieldmate.file;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileStorageTest {
+
+    @TempDir
+    File directory;
+
+    static Stream<Arguments> storages() {
+        return Stream.of(Arguments.of(new JsonStorage()), Arguments.of(new YamlStorage()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void streamedDocumentReadsBackAsWritten(FileStorage storage) throws Exception {
+        StringWriter writer = new StringWriter();
+        storage.write(writer, document());
+
+        assertEquals(storage.mapToString(document()), writer.toString());
+        assertEquals(normalize(document()), normalize(storage.read(new StringReader(writer.toString()))));
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void fileReadsBackAsSaved(FileStorage storage) {
+        File file = new File(directory, "nested/document.txt");
+        storage.save(file, document());
+
+        assertEquals(normalize(document()), normalize(storage.load(file)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void visitorOnlyReceivesAcceptedEntries(FileStorage storage) throws Exception {
+        LinkedHashMap<String, Object> visited = new LinkedHashMap<>();
+
+        storage.read(new StringReader(storage.mapToString(document())), new FieldVisitor() {
+            @Override
+            public boolean accepts(String name) {
+                return !name.equals("tags");
+            }
+
+            @Override
+            public void visit(String name, Object value) {
+                visited.put(name, value);
+            }
+        });
+
+        assertEquals(Arrays.asList("name", "level", "nested"), new ArrayList<>(visited.keySet()));
+        assertEquals("line one\nline two", visited.get("name"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    void sharedInstanceWritesAndReadsConcurrently(FileStorage storage) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 64; i++) {
+                int id = i;
+
+                futures.add(executor.submit(() -> {
+                    LinkedHashMap<String, Object> map = document();
+                    map.put("id", "object" + id);
+
+                    String text = storage.mapToString(map);
+                    assertEquals(normalize(map), normalize(storage.stringToMap(text)));
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static LinkedHashMap<String, Object> document() {
+        LinkedHashMap<String, Object> nested = new LinkedHashMap<>();
+        nested.put("enabled", true);
+
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "line one\nline two");
+        map.put("level", 3);
+        map.put("tags", Arrays.asList("a", "b"));
+        map.put("nested", nested);
+
+        return map;
+    }
+
+    /**
+     * Formats differ in the number types they read back, so numbers are compared by value.
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Map) {
+            LinkedHashMap<Object, Object> map = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((key, element) -> map.put(key, normalize(element)));
+            return map;
+        } else if (value instanceof List) {
+            ArrayList<Object> list = new ArrayList<>();
+            ((List<?>) value).forEach(element -> list.add(normalize(element)));
+            return list;
+        } else if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+
+        return value;
+    }
+
+}
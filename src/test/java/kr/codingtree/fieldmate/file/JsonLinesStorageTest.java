@@ -0,0 +1,125 @@
+package kr.codingtree.fieldmate.file;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.converter.ClassConverter;
+import kr.codingtree.fieldmate.converter.FieldConverter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonLinesStorageTest {
+
+    private static final UUID FIRST = UUID.randomUUID(), SECOND = UUID.randomUUID(), THIRD = UUID.randomUUID();
+
+    @TempDir
+    File directory;
+
+    @Test
+    void restartedSessionAppendsToLoadedLists() throws Exception {
+        File file = new File(directory, "history.jsonl");
+        save(file, history(Arrays.asList("a", "b"), Arrays.asList(FIRST, SECOND)));
+
+        // a new converter and storage, as after a restart
+        JsonLinesStorage storage = new JsonLinesStorage();
+        History history = load(file, storage);
+        assertEquals(Arrays.asList("a", "b"), history.entries);
+        assertEquals(Arrays.asList(FIRST, SECOND), history.ids);
+
+        history.entries.add("c");
+        history.ids.add(THIRD);
+        save(file, history, storage);
+
+        History reloaded = load(file);
+        assertEquals(Arrays.asList("a", "b", "c"), reloaded.entries);
+        assertEquals(Arrays.asList(FIRST, SECOND, THIRD), reloaded.ids);
+        assertEquals(3, lines(file), "the new elements were not appended");
+    }
+
+    @Test
+    void saveWithoutLoadingWritesExactlyTheSavedLists() throws Exception {
+        File file = new File(directory, "history.jsonl");
+        save(file, history(Arrays.asList("a", "b"), Arrays.asList(FIRST, SECOND)));
+
+        save(file, history(Arrays.asList("c"), Arrays.asList(THIRD)));
+
+        History reloaded = load(file);
+        assertEquals(Arrays.asList("c"), reloaded.entries);
+        assertEquals(Arrays.asList(THIRD), reloaded.ids);
+        assertEquals(1, lines(file));
+    }
+
+    @Test
+    void saveWithAnotherInstanceAppendsToTheLoadedLists() throws Exception {
+        File file = new File(directory, "history.jsonl");
+        save(file, history(Arrays.asList("a", "b"), Arrays.asList(FIRST, SECOND)));
+
+        History history = load(file, new JsonLinesStorage());
+        history.entries.add("c");
+        save(file, history, new JsonLinesStorage());
+
+        History reloaded = load(file);
+        assertEquals(Arrays.asList("a", "b", "c"), reloaded.entries);
+        assertEquals(Arrays.asList(FIRST, SECOND), reloaded.ids);
+        assertEquals(2, lines(file), "the new element was not appended");
+    }
+
+    @Test
+    void loadedListThatShrankIsCompacted() throws Exception {
+        File file = new File(directory, "history.jsonl");
+        save(file, history(Arrays.asList("a", "b"), Arrays.asList(FIRST, SECOND)));
+
+        JsonLinesStorage storage = new JsonLinesStorage();
+        History history = load(file, storage);
+
+        history.entries.remove("a");
+        save(file, history, storage);
+
+        History reloaded = load(file);
+        assertEquals(Arrays.asList("b"), reloaded.entries);
+        assertEquals(Arrays.asList(FIRST, SECOND), reloaded.ids);
+        assertEquals(1, lines(file));
+    }
+
+    private History history(List<String> entries, List<UUID> ids) {
+        History history = new History();
+        history.entries.addAll(entries);
+        history.ids.addAll(ids);
+        return history;
+    }
+
+    private void save(File file, History history) {
+        save(file, history, new JsonLinesStorage());
+    }
+
+    private void save(File file, History history, JsonLinesStorage storage) {
+        new ClassConverter(new FieldConverter(new ConverterRegistry())).save(file, storage, history);
+    }
+
+    private History load(File file) {
+        return load(file, new JsonLinesStorage());
+    }
+
+    private History load(File file, JsonLinesStorage storage) {
+        History history = new History();
+        new ClassConverter(new FieldConverter(new ConverterRegistry())).load(file, storage, history);
+        return history;
+    }
+
+    private long lines(File file) throws Exception {
+        return Files.readAllLines(file.toPath()).stream().filter(line -> !line.trim().isEmpty()).count();
+    }
+
+    static class History {
+        List<String> entries = new ArrayList<>();
+        List<UUID> ids = new ArrayList<>();
+    }
+
+}
@@ -0,0 +1,122 @@
+package kr.codingtree.fieldmate.metrics;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.converter.ClassConverter;
+import kr.codingtree.fieldmate.converter.FieldConverter;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineStatsTest {
+
+    @TempDir
+    File directory;
+
+    private final FieldConverter fieldConverter = new FieldConverter(new ConverterRegistry());
+    private final ClassConverter classConverter = new ClassConverter(fieldConverter);
+
+    @Test
+    void loadsAndSavesAreCounted() {
+        PipelineStats stats = new PipelineStats();
+        classConverter.setMetricsListener(stats);
+
+        File file = new File(directory, "profile.json");
+        JsonStorage storage = new JsonStorage();
+        Profile profile = new Profile();
+
+        assertTrue(classConverter.save(file, storage, profile));
+        assertFalse(classConverter.save(file, storage, profile));
+        classConverter.load(file, storage, new Profile());
+
+        OperationStats operationStats = stats.getStats(Profile.class, JsonStorage.class);
+
+        assertEquals(2, operationStats.getSaves());
+        assertEquals(1, operationStats.getSkippedSaves());
+        assertEquals(1, operationStats.getLoads());
+        assertEquals(0, operationStats.getFailures());
+        assertEquals(file.length(), operationStats.getBytesRead());
+        assertEquals(file.length(), operationStats.getBytesWritten());
+        assertEquals(3, operationStats.getFieldsLoaded());
+        assertEquals(6, operationStats.getFieldsSaved());
+        assertTrue(operationStats.getReadNanos() > 0);
+        assertTrue(operationStats.getWriteNanos() > 0);
+        assertSame(operationStats, stats.getStats(Profile.class, JsonStorage.class));
+    }
+
+    @Test
+    void eventsReportFailures() throws Exception {
+        List<PipelineEvent> events = Collections.synchronizedList(new ArrayList<>());
+        classConverter.setMetricsListener(new MetricsListener() {
+            @Override
+            public void onEvent(PipelineEvent event) {
+                events.add(event);
+            }
+        });
+
+        File file = new File(directory, "broken.json");
+        Files.write(file.toPath(), "{\"name\": ".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(Exception.class, () -> classConverter.load(file, new JsonStorage(), new Profile()));
+
+        assertEquals(1, events.size());
+        assertEquals(PipelineEvent.Operation.LOAD, events.get(0).getOperation());
+        assertNotNull(events.get(0).getFailure());
+    }
+
+    @Test
+    void valuesWithoutConverterAreCountedAsMisses() {
+        PipelineStats stats = new PipelineStats();
+        fieldConverter.setMetricsListener(stats);
+
+        Unconvertible unconvertible = new Unconvertible();
+        unconvertible.profiles.add(new Profile());
+        classConverter.save(new File(directory, "unconvertible.json"), new JsonStorage(), unconvertible);
+
+        assertEquals(Collections.singletonMap(Profile.class.getTypeName(), 1L), stats.getConverterMisses());
+    }
+
+    @Test
+    void statsAreRegisteredAsMBeans() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        PipelineStats stats = new PipelineStats(server);
+        classConverter.setMetricsListener(stats);
+
+        classConverter.save(new File(directory, "profile.json"), new JsonStorage(), new Profile());
+
+        ObjectName name = new ObjectName("kr.codingtree.fieldmate:type=PipelineStats,class=" + ObjectName.quote(Profile.class.getName())
+                + ",storage=" + ObjectName.quote(JsonStorage.class.getName()));
+
+        assertEquals(1L, server.getAttribute(name, "Saves"));
+
+        stats.unregister();
+        assertFalse(server.isRegistered(name));
+    }
+
+    static class Profile {
+        String name = "profile";
+        int level = 1;
+        List<String> tags = new ArrayList<>();
+    }
+
+    static class Unconvertible {
+        List<Profile> profiles = new ArrayList<>();
+    }
+
+}
@@ -0,0 +1,124 @@
+package kr.codingtree.fieldmate.reload;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.converter.ClassConverter;
+import kr.codingtree.fieldmate.converter.FieldConverter;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ReloadServiceTest {
+
+    @TempDir
+    File directory;
+
+    private final ClassConverter classConverter = new ClassConverter(new FieldConverter(new ConverterRegistry()));
+    // writes the file the way an editor would, without the change tracker of the watching converter knowing about it
+    private final ClassConverter editor = new ClassConverter(new FieldConverter(new ConverterRegistry()));
+    private final JsonStorage storage = new JsonStorage();
+    private final BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<>();
+
+    private ReloadService reloadService;
+
+    @AfterEach
+    void close() throws Exception {
+        if (reloadService != null) {
+            reloadService.close();
+        }
+    }
+
+    @Test
+    void externalEditRebindsOnlyTheChangedEntries() throws Exception {
+        File file = new File(directory, "config.json");
+        Config config = watch(file, new ReloadService(classConverter, 50));
+        String name = config.name;
+
+        Config edited = new Config();
+        edited.tags = new ArrayList<>(Arrays.asList("x", "y"));
+        edited.level = 10;
+        editor.save(file, storage, edited);
+
+        assertEquals(new HashSet<>(Arrays.asList("tags", "level")), changes.poll(10, TimeUnit.SECONDS));
+        assertSame(name, config.name);
+        assertEquals(Arrays.asList("x", "y"), config.tags);
+        assertEquals(10, config.level);
+    }
+
+    @Test
+    void fileSavedByTheConverterIsNotBoundAgain() throws Exception {
+        File file = new File(directory, "config.json");
+        Config config = watch(file, new ReloadService(classConverter, 50));
+
+        config.level = 2;
+        classConverter.save(file, storage, config);
+        assertNull(changes.poll(500, TimeUnit.MILLISECONDS));
+
+        Config edited = new Config();
+        edited.level = 300;
+        editor.save(file, storage, edited);
+
+        assertEquals(new HashSet<>(Arrays.asList("level")), changes.poll(10, TimeUnit.SECONDS));
+        assertEquals(300, config.level);
+    }
+
+    @Test
+    void changesAreBoundOnTheGivenExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "owner"));
+        BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+
+        try {
+            File file = new File(directory, "config.json");
+            Config config = new Config();
+            classConverter.save(file, storage, config);
+
+            reloadService = new ReloadService(classConverter, 50, executor);
+            reloadService.register(file, storage, config, (changed, loadClass, keys) -> threads.add(Thread.currentThread().getName()));
+
+            Config edited = new Config();
+            edited.name = "edited";
+            editor.save(file, storage, edited);
+
+            assertEquals("owner", threads.poll(10, TimeUnit.SECONDS));
+            assertEquals("edited", config.name);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Config watch(File file, ReloadService reloadService) throws Exception {
+        this.reloadService = reloadService;
+
+        Config config = new Config();
+        classConverter.save(file, storage, config);
+        classConverter.load(file, storage, config);
+
+        assertNotNull(config.tags);
+        reloadService.register(file, storage, config, (changed, loadClass, keys) -> changes.add(keys));
+        return config;
+    }
+
+    static class Config {
+        String name = "config";
+        List<String> tags = new ArrayList<>(Arrays.asList("x"));
+        int level = 1;
+    }
+
+}
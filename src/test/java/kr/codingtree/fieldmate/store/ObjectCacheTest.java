@@ -0,0 +1,145 @@
+package kr.codingtree.fieldmate.store;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.converter.AsyncConverter;
+import kr.codingtree.fieldmate.converter.ClassConverter;
+import kr.codingtree.fieldmate.converter.FieldConverter;
+import kr.codingtree.fieldmate.converter.TreeConverter;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObjectCacheTest {
+
+    @TempDir
+    File directory;
+
+    private final ClassConverter classConverter = new ClassConverter(new FieldConverter(new ConverterRegistry()));
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void evictedDirtyObjectIsLoadedWithItsSavedState() throws Exception {
+        AsyncConverter asyncConverter = new AsyncConverter(classConverter, executor, 8);
+        ObjectCache<String, Data> cache = new ObjectCache<>(asyncConverter, new JsonStorage(), key -> new File(directory, key + ".json"), key -> new Data(), 1, 0);
+        ExecutorService evictor = Executors.newSingleThreadExecutor();
+
+        try {
+            for (int i = 0; i < 200; i++) {
+                String key = "dirty" + i;
+                Data data = new Data();
+                data.value = "saved" + i;
+                cache.put(key, data);
+
+                // evicts the dirty object on another thread while it is read again here
+                Future<?> eviction = evictor.submit(() -> cache.put("other", new Data()));
+                Data first = cache.get(key);
+                eviction.get();
+                Data second = cache.get(key);
+
+                assertEquals("saved" + i, first.value, key);
+                assertEquals("saved" + i, second.value, key);
+            }
+        } finally {
+            evictor.shutdownNow();
+        }
+
+        assertTrue(cache.getWriteBacks() > 0);
+    }
+
+    @Test
+    void failedWriteBackKeepsObjectCachedAndDirty() throws Exception {
+        File blocker = new File(directory, "blocker");
+        assertTrue(blocker.createNewFile());
+
+        // a file cannot be created below a regular file, so every save of the key fails
+        AsyncConverter asyncConverter = new AsyncConverter(classConverter, Runnable::run, 1);
+        ObjectCache<String, Data> cache = new ObjectCache<>(asyncConverter, new JsonStorage(),
+                key -> key.equals("broken") ? new File(blocker, key + ".json") : new File(directory, key + ".json"), key -> new Data(), 1, 0);
+
+        Data data = new Data();
+        data.value = "unsaved";
+        cache.put("broken", data);
+        cache.put("other", new Data());
+
+        assertEquals(1, cache.getWriteBackFailures());
+        assertSame(data, cache.getIfPresent("broken"));
+        assertEquals(1, cache.size(), "the object cached again was not trimmed to the maximum size");
+        assertThrows(CompletionException.class, () -> cache.flush().join());
+        assertSame(data, cache.getIfPresent("broken"));
+    }
+
+    @Test
+    void evictedObjectsAreConvertedWithoutTheLock() throws Exception {
+        AtomicReference<ObjectCache<String, Probed>> cache = new AtomicReference<>();
+        List<Boolean> accessible = Collections.synchronizedList(new ArrayList<>());
+
+        ConverterRegistry registry = new ConverterRegistry();
+        registry.registerConverter(new TreeConverter<Probe>() {
+            @Override
+            public Object toTree(Probe value) {
+                try {
+                    // blocks until the timeout if the converting thread holds the lock of the cache
+                    CompletableFuture.runAsync(() -> cache.get().size(), executor).get(5, TimeUnit.SECONDS);
+                    accessible.add(true);
+                } catch (TimeoutException e) {
+                    accessible.add(false);
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+
+                return "probe";
+            }
+
+            @Override
+            public Probe fromTree(Object value) {
+                return new Probe();
+            }
+        });
+
+        AsyncConverter asyncConverter = new AsyncConverter(new ClassConverter(new FieldConverter(registry)), Runnable::run, 1);
+        cache.set(new ObjectCache<>(asyncConverter, new JsonStorage(), key -> new File(directory, key + ".json"), key -> new Probed(), 1, 0));
+
+        cache.get().put("first", new Probed());
+        cache.get().put("second", new Probed());
+
+        assertEquals(Collections.singletonList(true), accessible);
+        assertEquals(1, cache.get().getWriteBacks());
+    }
+
+    static class Probe {
+    }
+
+    static class Probed {
+        Probe probe = new Probe();
+    }
+
+    static class Data {
+        String value = "";
+    }
+
+}
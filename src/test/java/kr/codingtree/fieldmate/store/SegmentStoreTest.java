@@ -0,0 +1,109 @@
+package kr.codingtree.fieldmate.store;
+
+import kr.codingtree.fieldmate.ConverterRegistry;
+import kr.codingtree.fieldmate.converter.ClassConverter;
+import kr.codingtree.fieldmate.converter.FieldConverter;
+import kr.codingtree.fieldmate.file.JsonStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentStoreTest {
+
+    @TempDir
+    File directory;
+
+    private final ClassConverter classConverter = new ClassConverter(new FieldConverter(new ConverterRegistry()));
+
+    @Test
+    void tornTailOfTheNewestSegmentIsCutOff() throws Exception {
+        try (SegmentStore store = new SegmentStore(classConverter, directory, new JsonStorage())) {
+            store.put("kept", Collections.singletonMap("value", "kept"));
+            store.put("torn", Collections.singletonMap("value", "torn"));
+        }
+
+        File segment = new File(directory, "segment-0.log");
+        long length = segment.length();
+
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(length - 3);
+        }
+
+        try (SegmentStore store = new SegmentStore(classConverter, directory, new JsonStorage())) {
+            assertEquals("kept", store.get("kept").get("value"));
+            assertFalse(store.contains("torn"));
+
+            store.put("after", Collections.singletonMap("value", "after"));
+        }
+
+        try (SegmentStore store = new SegmentStore(classConverter, directory, new JsonStorage())) {
+            assertEquals("after", store.get("after").get("value"));
+        }
+    }
+
+    @Test
+    void corruptRecordInAnOlderSegmentFailsTheOpen() throws Exception {
+        // every record starts a new segment, and none is superseded, so nothing is compacted away
+        try (SegmentStore store = new SegmentStore(classConverter, directory, new JsonStorage(), 1, false)) {
+            for (int i = 0; i < 3; i++) {
+                store.put("key" + i, Collections.singletonMap("value", "value" + i));
+            }
+        }
+
+        File middle = new File(directory, "segment-2.log");
+        assertTrue(new File(directory, "segment-3.log").exists());
+
+        // flips a byte of the value, so the record still has valid lengths but fails its checksum
+        try (RandomAccessFile file = new RandomAccessFile(middle, "rw")) {
+            file.seek(file.length() - 6);
+            int value = file.read();
+            file.seek(file.length() - 6);
+            file.write(value ^ 0xFF);
+        }
+
+        long length = middle.length();
+        IOException exception = assertThrows(IOException.class, () -> new SegmentStore(classConverter, directory, new JsonStorage(), 1, false));
+
+        assertTrue(exception.getMessage().contains(middle.getName()), exception.getMessage());
+        assertEquals(length, middle.length(), "the sealed segment was truncated");
+    }
+
+    @Test
+    void compactedRecordsSurviveReopening() throws Exception {
+        try (SegmentStore store = new SegmentStore(classConverter, directory, new JsonStorage(), 512, false)) {
+            for (int i = 0; i < 20; i++) {
+                store.put("key" + i, Collections.singletonMap("value", "first" + i));
+            }
+
+            // supersedes most records of the older segments, so they become compactable
+            for (int i = 0; i < 15; i++) {
+                store.put("key" + i, Collections.singletonMap("value", "second" + i));
+            }
+
+            store.compact();
+        }
+
+        // holds only superseded records, so it is compacted either here or in the background
+        assertFalse(new File(directory, "segment-0.log").exists(), "the first segment was not compacted");
+
+        try (SegmentStore store = new SegmentStore(classConverter, directory, new JsonStorage(), 512, false)) {
+            assertEquals(20, store.keys().size());
+
+            for (int i = 0; i < 20; i++) {
+                LinkedHashMap<String, Object> entries = store.get("key" + i);
+                assertEquals((i < 15 ? "second" : "first") + i, entries.get("value"), "key" + i);
+            }
+        }
+    }
+
+}